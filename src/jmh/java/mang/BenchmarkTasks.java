@@ -0,0 +1,72 @@
+package mang;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Generates reproducible task lists for the benchmarks.
+ */
+public final class BenchmarkTasks {
+    private static final String[] VERBS = {
+        "read", "return", "write", "review", "submit", "prepare", "call", "buy", "fix", "plan"
+    };
+    private static final String[] NOUNS = {
+        "book", "report", "slides", "essay", "groceries", "project proposal", "bug", "meeting notes",
+        "tax forms", "birthday gift", "lecture", "tutorial", "assignment", "presentation"
+    };
+    private static final String[] TIMES = {"Mon 2pm", "Tue 10am", "Wed 4pm", "Thu 9am", "Fri 1pm"};
+
+    /**
+     * Share of each task type in a generated list, in percent.
+     */
+    public enum Mix {
+        BALANCED(34, 33),
+        TODO_HEAVY(70, 20),
+        DEADLINE_HEAVY(20, 70);
+
+        private final int todoPercent;
+        private final int deadlinePercent;
+
+        Mix(int todoPercent, int deadlinePercent) {
+            this.todoPercent = todoPercent;
+            this.deadlinePercent = deadlinePercent;
+        }
+    }
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Creates {@code size} tasks of the given mix; the same arguments always produce the same tasks.
+     */
+    public static Task[] create(int size, Mix mix) {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            String desc = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            int roll = random.nextInt(100);
+            Task t;
+            if (roll < mix.todoPercent) {
+                t = new Todo(desc);
+            } else if (roll < mix.todoPercent + mix.deadlinePercent) {
+                t = new Deadline(desc, start.plusDays(random.nextInt(730)));
+            } else {
+                t = new Event(desc, TIMES[random.nextInt(TIMES.length)], TIMES[random.nextInt(TIMES.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                t.markDone();
+            }
+            tasks[i] = t;
+        }
+        return tasks;
+    }
+
+    /**
+     * Creates a {@link TaskList} holding {@link #create(int, Mix)}.
+     */
+    public static TaskList createList(int size, Mix mix) {
+        Task[] tasks = create(size, mix);
+        return new TaskList(tasks, tasks.length);
+    }
+}
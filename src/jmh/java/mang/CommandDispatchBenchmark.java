@@ -0,0 +1,75 @@
+package mang;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares resolving a command line through {@link CommandRegistry} with the prefix chain it replaced.
+ * Only the lookup is measured, not the command itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+    @Param({"bye", "mark 2", "event project meeting /from Mon 2pm /to 4pm", "sort deadline", "blah"})
+    private String input;
+
+    private CommandRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new CommandRegistry();
+        String[] words = {"bye", "list", "mark", "unmark", "todo", "deadline", "event", "delete", "find", "sort"};
+        for (String word : words) {
+            registry.register(word, (in, reply) -> { });
+        }
+    }
+
+    @Benchmark
+    public Command registry() {
+        return registry.lookup(input);
+    }
+
+    /**
+     * The if/else chain that {@code Mang.getResponse} used before the registry, returning the branch taken.
+     */
+    @Benchmark
+    public int prefixChain() {
+        if (Parser.isBye(input)) {
+            return 0;
+        } else if (Parser.isList(input)) {
+            return 1;
+        } else if (Parser.startsWith(input, "mark")) {
+            return 2;
+        } else if (Parser.startsWith(input, "unmark")) {
+            return 3;
+        } else if (input.startsWith("todo")) {
+            return 4;
+        } else if (input.startsWith("deadline")) {
+            return 5;
+        } else if (input.startsWith("event")) {
+            return 6;
+        } else if (Parser.startsWith(input, "delete")) {
+            return 7;
+        } else if (Parser.isFind(input)) {
+            return 8;
+        } else if (Parser.isSort(input)) {
+            return 9;
+        }
+        return -1;
+    }
+}
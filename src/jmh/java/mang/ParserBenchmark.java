@@ -0,0 +1,49 @@
+package mang;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link Parser} methods that turn a command line into a task or an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private String todo = "todo read book";
+    private String deadline = "deadline return book /by 2019-10-15";
+    private String event = "event project meeting /from Mon 2pm /to 4pm";
+    private String mark = "mark 42";
+
+    @Benchmark
+    public Todo parseTodo() {
+        return Parser.parseTodo(todo);
+    }
+
+    @Benchmark
+    public Deadline parseDeadline() {
+        return Parser.parseDeadline(deadline);
+    }
+
+    @Benchmark
+    public Event parseEvent() {
+        return Parser.parseEvent(event);
+    }
+
+    @Benchmark
+    public int parseIndexAfter() {
+        return Parser.parseIndexAfter(mark, "mark");
+    }
+}
@@ -0,0 +1,79 @@
+package mang;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Storage#load()} and {@link Storage#save(Task[], int)} across list sizes and task mixes,
+ * plus a lazy load that only touches one task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "TODO_HEAVY", "DEADLINE_HEAVY"})
+    private BenchmarkTasks.Mix mix;
+
+    private Path dir;
+    private Storage storage;
+    private Storage lazyStorage;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mang-bench");
+        storage = new Storage(dir.resolve("mang.txt"));
+        storage.setDurability(Storage.Durability.NONE); // measure formatting and I/O, not the disk's fsync
+        tasks = BenchmarkTasks.create(size, mix);
+        storage.save(tasks, tasks.length);
+        lazyStorage = new Storage(dir.resolve("mang.txt"));
+        lazyStorage.setLazyLoading(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TaskList load() {
+        return storage.load();
+    }
+
+    @Benchmark
+    public Task loadLazyAndGetOne() {
+        TaskList loaded = lazyStorage.load();
+        return loaded.get(loaded.size() / 2);
+    }
+
+    @Benchmark
+    public void save() {
+        storage.save(tasks, tasks.length); // rewrites the same tasks, so the file lazyStorage maps stays valid
+    }
+}
@@ -0,0 +1,61 @@
+package mang;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link TaskList} operations behind {@code find} and {@code delete}.
+ * Sorting is measured separately by {@link TaskListSortBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskListBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "TODO_HEAVY", "DEADLINE_HEAVY"})
+    private BenchmarkTasks.Mix mix;
+
+    private TaskList tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = BenchmarkTasks.createList(size, mix);
+        tasks.find("warm up the index");
+    }
+
+    @Benchmark
+    public Task[] findCommonKeyword() {
+        return tasks.find("book");
+    }
+
+    @Benchmark
+    public Task[] findRareKeyword() {
+        return tasks.find("tax forms 4");
+    }
+
+    /**
+     * Deletes the first task and appends it again, so the list size stays constant across invocations.
+     */
+    @Benchmark
+    public Task deleteFirst() {
+        Task removed = tasks.delete(1);
+        return tasks.add(removed);
+    }
+}
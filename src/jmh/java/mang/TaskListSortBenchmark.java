@@ -0,0 +1,55 @@
+package mang;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TaskList#sortByDeadline()} on an unsorted list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskListSortBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "TODO_HEAVY", "DEADLINE_HEAVY"})
+    private BenchmarkTasks.Mix mix;
+
+    private Task[] original;
+    private TaskList tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        original = BenchmarkTasks.create(size, mix);
+    }
+
+    /**
+     * Sorting an already sorted list is nearly free, so every sort starts from the generated order.
+     */
+    @Setup(Level.Iteration)
+    public void resetOrder() {
+        tasks = new TaskList(original.clone(), original.length);
+    }
+
+    @Benchmark
+    public TaskList sortByDeadline() {
+        tasks.sortByDeadline();
+        return tasks;
+    }
+}
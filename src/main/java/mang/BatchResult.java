@@ -0,0 +1,55 @@
+package mang;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link Mang#runBatch(Iterable, boolean)}: one response per command that was run,
+ * and which command failed first, if any.
+ */
+public class BatchResult {
+    private final List<String> responses;
+    private final int failedCommandNumber;
+    private final boolean isRolledBack;
+
+    /**
+     * Creates a batch result.
+     *
+     * @param responses           Responses in command order.
+     * @param failedCommandNumber 1-based number of the first failed command, or 0 if none failed.
+     * @param isRolledBack        Whether all changes of the batch were undone.
+     */
+    public BatchResult(List<String> responses, int failedCommandNumber, boolean isRolledBack) {
+        this.responses = Collections.unmodifiableList(responses);
+        this.failedCommandNumber = failedCommandNumber;
+        this.isRolledBack = isRolledBack;
+    }
+
+    /**
+     * Returns the response of every command that was run, in order.
+     */
+    public List<String> getResponses() {
+        return responses;
+    }
+
+    /**
+     * Returns true if every command succeeded.
+     */
+    public boolean isSuccessful() {
+        return failedCommandNumber == 0;
+    }
+
+    /**
+     * Returns the 1-based number of the first failed command, or 0 if none failed.
+     */
+    public int getFailedCommandNumber() {
+        return failedCommandNumber;
+    }
+
+    /**
+     * Returns true if the batch was atomic, a command failed, and all its changes were undone.
+     */
+    public boolean isRolledBack() {
+        return isRolledBack;
+    }
+}
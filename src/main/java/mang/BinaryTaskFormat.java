@@ -0,0 +1,176 @@
+package mang;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Compact binary encoding of a task list, used by {@link Storage} for data files ending in {@code .bin}.
+ * Layout (big-endian):
+ * <pre>
+ * int   magic "MANG"
+ * short version (currently 1)
+ * long  generation (see {@link Storage})
+ * int   task count
+ * then per task:
+ *   byte  type ('T', 'D' or 'E')
+ *   byte  flags (bit 0: done)
+ *   str   description
+ *   long  epoch day of the due date   (Deadline only)
+ *   str   from, str to                (Event only)
+ * </pre>
+ * where {@code str} is an int byte length followed by that many UTF-8 bytes.
+ */
+public class BinaryTaskFormat {
+    /** "MANG" in ASCII. */
+    static final int MAGIC = 0x4D414E47;
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 4;
+    private static final byte FLAG_DONE = 1;
+
+    private BinaryTaskFormat() {
+        // static helpers only
+    }
+
+    /**
+     * Encodes the tasks into a buffer ready to be written.
+     */
+    static ByteBuffer encode(TaskSnapshot tasks, long generation) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + tasks.size() * 32);
+        out.putInt(MAGIC).putShort(VERSION).putLong(generation);
+        int countAt = out.position();
+        out.putInt(0);
+
+        int written = 0;
+        for (Task t : tasks) {
+            byte type;
+            if (t instanceof Todo) {
+                type = 'T';
+            } else if (t instanceof Deadline) {
+                type = 'D';
+            } else if (t instanceof Event) {
+                type = 'E';
+            } else {
+                throw new StorageException("Unsupported task subtype: " + t.getClass().getName());
+            }
+            out = ensureRemaining(out, 2);
+            out.put(type).put(t.isDone() ? FLAG_DONE : 0);
+            out = putString(out, t.getDescription());
+            if (t instanceof Deadline) {
+                out = ensureRemaining(out, 8);
+                out.putLong(((Deadline) t).getBy().toEpochDay());
+            } else if (t instanceof Event) {
+                Event e = (Event) t;
+                out = putString(out, e.getFrom());
+                out = putString(out, e.getTo());
+            }
+            written++;
+        }
+        out.putInt(countAt, written);
+        out.flip();
+        return out;
+    }
+
+    private static ByteBuffer putString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out = ensureRemaining(out, 4 + bytes.length);
+        return out.putInt(bytes.length).put(bytes);
+    }
+
+    private static ByteBuffer ensureRemaining(ByteBuffer out, int needed) {
+        if (out.remaining() >= needed) {
+            return out;
+        }
+        int capacity = Math.max(out.capacity() * 2, out.position() + needed);
+        ByteBuffer bigger = ByteBuffer.allocate(capacity);
+        out.flip();
+        return bigger.put(out);
+    }
+
+    /**
+     * The result of decoding a binary data file.
+     */
+    static final class Decoded {
+        final long generation;
+        final int skipped; // tasks announced in the header that could not be read
+
+        Decoded(long generation, int skipped) {
+            this.generation = generation;
+            this.skipped = skipped;
+        }
+    }
+
+    /**
+     * Decodes {@code content} into {@code dest}.
+     * A truncated or corrupted task ends decoding: the tasks before it are kept and the rest are counted as skipped.
+     *
+     * @throws StorageException if the header is missing or the version is not supported
+     */
+    static Decoded decode(ByteBuffer content, TaskList dest) {
+        if (content.remaining() < HEADER_SIZE || content.getInt() != MAGIC) {
+            throw new StorageException("Not a Mang binary data file.");
+        }
+        short version = content.getShort();
+        if (version != VERSION) {
+            throw new StorageException("Unsupported binary data file version " + version
+                    + " (this version of Mang reads version " + VERSION + ").");
+        }
+        long generation = content.getLong();
+        int count = content.getInt();
+
+        int read = 0;
+        try {
+            for (; read < count; read++) {
+                dest.add(getTask(content));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            // truncated or corrupted → keep what was read
+        }
+        return new Decoded(generation, count - read);
+    }
+
+    private static Task getTask(ByteBuffer in) {
+        byte type = in.get();
+        boolean isDone = (in.get() & FLAG_DONE) != 0;
+        String desc = getString(in);
+        Task t;
+        switch (type) {
+        case 'T':
+            t = new Todo(desc);
+            break;
+        case 'D':
+            t = new Deadline(desc, LocalDate.ofEpochDay(in.getLong()));
+            break;
+        case 'E':
+            String from = getString(in);
+            t = new Event(desc, from, getString(in));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown task type " + type);
+        }
+        if (isDone) {
+            t.markDone();
+        }
+        return t;
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,16 @@
+package mang;
+
+/**
+ * A user command registered in a {@link CommandRegistry} under its first word.
+ */
+@FunctionalInterface
+public interface Command {
+    /**
+     * Runs the command and writes its response to {@code reply}.
+     * Invalid input is reported by throwing, e.g. {@link IllegalArgumentException}.
+     *
+     * @param input The full command line, e.g. {@code "mark 2"}.
+     * @param reply Where the response lines go.
+     */
+    void execute(String input, Reply reply);
+}
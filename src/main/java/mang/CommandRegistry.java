@@ -0,0 +1,112 @@
+package mang;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps the first word of a command line to its {@link Command}, so dispatch is a single hash lookup
+ * no matter how many commands exist. Every dispatch is timed into a {@link LatencyHistogram} per command.
+ * Commands registered as queries only read the task list, so callers may run them alongside other commands.
+ */
+public class CommandRegistry {
+    private final Map<String, Registration> commands = new HashMap<>();
+
+    private static final class Registration {
+        private final Command command;
+        private final boolean isQuery;
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Registration(Command command, boolean isQuery) {
+            this.command = command;
+            this.isQuery = isQuery;
+        }
+    }
+
+    /**
+     * Registers {@code command} under {@code word}.
+     *
+     * @param word    The command word, e.g. {@code "mark"}.
+     * @param command The handler.
+     * @throws IllegalArgumentException If the word is already registered.
+     */
+    public void register(String word, Command command) {
+        register(word, command, false);
+    }
+
+    /**
+     * Registers {@code command} under {@code word} as a query: a command that never changes the task list.
+     *
+     * @param word    The command word, e.g. {@code "list"}.
+     * @param command The handler.
+     * @throws IllegalArgumentException If the word is already registered.
+     */
+    public void registerQuery(String word, Command command) {
+        register(word, command, true);
+    }
+
+    private void register(String word, Command command, boolean isQuery) {
+        if (commands.putIfAbsent(word, new Registration(command, isQuery)) != null) {
+            throw new IllegalArgumentException("Command already registered: " + word);
+        }
+    }
+
+    /**
+     * Returns true if the first word of {@code input} names a query, which only reads the task list.
+     */
+    public boolean isQuery(String input) {
+        Registration registration = commands.get(Parser.commandWord(input));
+        return registration != null && registration.isQuery;
+    }
+
+    /**
+     * Returns the command registered for the first word of {@code input}, or null if there is none.
+     */
+    public Command lookup(String input) {
+        Registration registration = commands.get(Parser.commandWord(input));
+        return registration == null ? null : registration.command;
+    }
+
+    /**
+     * Runs the command named by the first word of {@code input}.
+     *
+     * @param input The full command line.
+     * @param reply Where the response lines go.
+     * @throws UnsupportedOperationException If no command is registered for the first word.
+     */
+    public void dispatch(String input, Reply reply) {
+        Registration registration = commands.get(Parser.commandWord(input));
+        if (registration == null) {
+            throw new UnsupportedOperationException("Unknown command: " + input);
+        }
+        long start = System.nanoTime();
+        try {
+            registration.command.execute(input, reply);
+        } finally {
+            registration.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the registered command words.
+     */
+    public Set<String> words() {
+        return commands.keySet();
+    }
+
+    /**
+     * Returns how many times the command has been dispatched (0 if it is not registered).
+     */
+    public long invocationCount(String word) {
+        Registration registration = commands.get(word);
+        return registration == null ? 0 : registration.latency.count();
+    }
+
+    /**
+     * Returns the latency histogram of the command, or null if it is not registered.
+     */
+    public LatencyHistogram latency(String word) {
+        Registration registration = commands.get(word);
+        return registration == null ? null : registration.latency;
+    }
+}
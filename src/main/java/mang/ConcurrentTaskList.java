@@ -0,0 +1,195 @@
+package mang;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * A {@link TaskList} that several front ends (the GUI, the CLI, a scripted client) can share in one process.
+ *
+ * <p>Every change takes the write lock of a {@link ReentrantReadWriteLock}, so writes are serialized and
+ * none is lost. Before releasing it, the change publishes an O(1) {@link TaskSnapshot} of the list, and
+ * {@link #size()}, {@link #get(int)} and {@link #snapshot()} are served from the last one published without
+ * taking any lock: a read never waits for a write, and {@code list} and saving always see the list as a whole,
+ * never halfway through a write. Keyword and date queries go through indexes that writes update in place, so
+ * they still share the read lock. The first {@code find} and the first date query build their index, which
+ * changes the list's internals, so they take the write lock once; later ones only read.
+ *
+ * <p>A lazily loaded list is built in full when it is wrapped, because building a task on first access
+ * would also be a write.
+ */
+public class ConcurrentTaskList extends TaskList {
+    private static final int KEYWORD_INDEX = 1;
+    private static final int DATE_INDEXES = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    private int builtIndexes; // KEYWORD_INDEX | DATE_INDEXES once built; guarded by lock
+    private volatile TaskSnapshot published; // the list after the last write
+
+    /**
+     * Creates an empty shared task list.
+     */
+    public ConcurrentTaskList() {
+        super();
+        published = super.snapshot();
+    }
+
+    /**
+     * Creates a shared task list holding the tasks of {@code loaded}, e.g. the list returned by
+     * {@link Storage#load()}. {@code loaded} should not be used afterwards.
+     *
+     * @param loaded The tasks to share.
+     */
+    public ConcurrentTaskList(TaskList loaded) {
+        this(loaded.snapshot().toArray());
+    }
+
+    private ConcurrentTaskList(Task[] tasks) {
+        super(tasks, tasks.length);
+        published = super.snapshot();
+    }
+
+    @Override
+    public int size() {
+        return published.size();
+    }
+
+    @Override
+    public Task get(int zeroBasedIndex) {
+        return published.get(zeroBasedIndex);
+    }
+
+    /**
+     * Returns the view of the list published by the last write. Neither taking nor iterating it blocks,
+     * or is blocked by, writers.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        return published;
+    }
+
+    @Override
+    public Task add(Task t) {
+        return write(() -> super.add(t));
+    }
+
+    @Override
+    public Task mark(int oneBasedIndex) {
+        return write(() -> super.mark(oneBasedIndex));
+    }
+
+    @Override
+    public Task unmark(int oneBasedIndex) {
+        return write(() -> super.unmark(oneBasedIndex));
+    }
+
+    @Override
+    public Task delete(int oneBasedIndex) {
+        return write(() -> super.delete(oneBasedIndex));
+    }
+
+    @Override
+    public Task[] deleteAll(int[] oneBasedIndexes) {
+        return write(() -> super.deleteAll(oneBasedIndexes));
+    }
+
+    @Override
+    public Task[] markAll(int[] oneBasedIndexes) {
+        return write(() -> super.markAll(oneBasedIndexes));
+    }
+
+    @Override
+    public Task[] unmarkAll(int[] oneBasedIndexes) {
+        return write(() -> super.unmarkAll(oneBasedIndexes));
+    }
+
+    @Override
+    public void restore(Task[] snapshot) {
+        write(() -> {
+            super.restore(snapshot);
+            builtIndexes = 0;
+            return null;
+        });
+    }
+
+    @Override
+    public void sortByDescription() {
+        write(() -> {
+            super.sortByDescription();
+            return null;
+        });
+    }
+
+    @Override
+    public void sortByDeadline() {
+        write(() -> {
+            super.sortByDeadline();
+            return null;
+        });
+    }
+
+    @Override
+    public Task[] find(String keyword) {
+        return query(KEYWORD_INDEX, () -> super.find(keyword));
+    }
+
+    @Override
+    public List<Deadline> nextDue(int n) {
+        return query(DATE_INDEXES, () -> super.nextDue(n));
+    }
+
+    @Override
+    public List<Deadline> dueBefore(LocalDate date) {
+        return query(DATE_INDEXES, () -> super.dueBefore(date));
+    }
+
+    @Override
+    public List<Task> dueBetween(LocalDate from, LocalDate to) {
+        return query(DATE_INDEXES, () -> super.dueBetween(from, to));
+    }
+
+    @Override
+    public List<Event> happeningOn(LocalDate date) {
+        return query(DATE_INDEXES, () -> super.happeningOn(date));
+    }
+
+    /**
+     * Runs a change under the write lock and publishes the list as it left it, also when it failed halfway.
+     */
+    private <T> T write(Supplier<T> change) {
+        writeLock.lock();
+        try {
+            return change.get();
+        } finally {
+            published = super.snapshot();
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a query that builds {@code index} on first use: under the write lock until the index exists,
+     * under the read lock after that.
+     */
+    private <T> T query(int index, Supplier<T> query) {
+        readLock.lock();
+        try {
+            if ((builtIndexes & index) != 0) {
+                return query.get();
+            }
+        } finally {
+            readLock.unlock();
+        }
+        writeLock.lock();
+        try {
+            T result = query.get();
+            builtIndexes |= index;
+            return result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
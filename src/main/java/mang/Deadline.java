@@ -7,6 +7,9 @@ import java.time.format.DateTimeFormatter;
  * mang.Deadline task.
  */
 public class Deadline extends Task {
+    /** Shown format, e.g. "Oct 15 2019"; formatters are immutable, so one is shared by all threads. */
+    private static final DateTimeFormatter BY_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy");
+
     private final LocalDate by;
 
     /**
@@ -30,9 +33,9 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
+    protected String render() {
         // Print in format: "Oct 15 2019"
-        String formattedDate = by.format(DateTimeFormatter.ofPattern("MMM d yyyy"));
-        return "[D]" + super.toString() + " (by: " + formattedDate + ")";
+        String formattedDate = by.format(BY_FORMAT);
+        return "[D]" + super.render() + " (by: " + formattedDate + ")";
     }
 }
@@ -0,0 +1,98 @@
+package mang;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Pending (not done) {@link Deadline}s ordered by due date, used by {@link TaskList} for date queries.
+ * Deadlines due on the same day keep the order in which they entered the index.
+ * Adding and removing a deadline is O(log n), and a query returning k deadlines is O(log n + k);
+ * the task list itself is never reordered.
+ */
+public class DeadlineIndex {
+    private static final Comparator<Entry> BY_DATE = Comparator.<Entry, LocalDate>comparing(e -> e.by)
+            .thenComparingLong(e -> e.sequence);
+
+    private final NavigableSet<Entry> byDate = new TreeSet<>(BY_DATE);
+    private final Map<Task, Entry> entries = new IdentityHashMap<>(); // tasks can be equal() without being the same
+    private long nextSequence;
+
+    private static final class Entry {
+        final Deadline task;
+        final LocalDate by;
+        final long sequence;
+
+        Entry(Deadline task, LocalDate by, long sequence) {
+            this.task = task;
+            this.by = by;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Indexes {@code task} if it is a pending deadline that is not indexed yet; other tasks are ignored.
+     */
+    void add(Task task) {
+        if (!(task instanceof Deadline) || task.isDone() || entries.containsKey(task)) {
+            return;
+        }
+        Deadline d = (Deadline) task;
+        Entry e = new Entry(d, d.getBy(), nextSequence++);
+        entries.put(task, e);
+        byDate.add(e);
+    }
+
+    /**
+     * Removes {@code task} from the index, e.g. because it was deleted or marked done.
+     */
+    void remove(Task task) {
+        Entry e = entries.remove(task);
+        if (e != null) {
+            byDate.remove(e);
+        }
+    }
+
+    /**
+     * Returns up to {@code n} pending deadlines, soonest first.
+     */
+    List<Deadline> next(int n) {
+        List<Deadline> due = new ArrayList<>(Math.min(n, entries.size()));
+        for (Entry e : byDate) {
+            if (due.size() == n) {
+                break;
+            }
+            due.add(e.task);
+        }
+        return due;
+    }
+
+    /**
+     * Returns the pending deadlines due from {@code from} to {@code to} (inclusive), soonest first.
+     */
+    List<Deadline> between(LocalDate from, LocalDate to) {
+        List<Deadline> due = new ArrayList<>();
+        Entry low = new Entry(null, from, Long.MIN_VALUE);
+        Entry high = new Entry(null, to, Long.MAX_VALUE);
+        for (Entry e : byDate.subSet(low, true, high, true)) {
+            due.add(e.task);
+        }
+        return due;
+    }
+
+    /**
+     * Returns the pending deadlines due strictly before {@code date}, soonest first.
+     */
+    List<Deadline> before(LocalDate date) {
+        List<Deadline> due = new ArrayList<>();
+        for (Entry e : byDate.headSet(new Entry(null, date, Long.MIN_VALUE), false)) {
+            due.add(e.task);
+        }
+        return due;
+    }
+}
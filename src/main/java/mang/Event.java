@@ -1,11 +1,18 @@
 package mang;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
 /**
  * mang.Event task with a start and an end.
+ * Start and end are free text, but when they begin with a date ({@code yyyy-MM-dd}, optionally followed by
+ * a time such as {@code 14:00}) the event also knows the days it spans, so it can be found by date.
  */
 public class Event extends Task {
     private final String from;
     private final String to;
+    private final LocalDate startDate; // null unless the event's days could be worked out
+    private final LocalDate endDate;
 
     /**
      * Creates an Event task with a description, a start time, and an end time.
@@ -22,6 +29,53 @@ public class Event extends Task {
         assert to != null : "Event end time must not be null";
         this.from = from;
         this.to = to;
+
+        LocalDate start = leadingDate(from);
+        LocalDate end = leadingDate(to);
+        if (start == null) {
+            start = end; // only the end is a date: a one-day event
+        } else if (end == null) {
+            end = start;
+        }
+        boolean isValid = start != null && !end.isBefore(start);
+        this.startDate = isValid ? start : null;
+        this.endDate = isValid ? end : null;
+    }
+
+    /**
+     * Returns the date that {@code text} starts with, or null if it does not start with a valid yyyy-MM-dd date.
+     * Free text such as "Mon 2pm" is rejected without throwing, so loading many events stays cheap.
+     */
+    static LocalDate leadingDate(String text) {
+        if (text.length() < 10 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.length() > 10 && text.charAt(10) != ' ' && text.charAt(10) != 'T')) {
+            return null;
+        }
+        for (int i : new int[] {0, 1, 2, 3, 5, 6, 8, 9}) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return null;
+            }
+        }
+        try {
+            return LocalDate.parse(text.substring(0, 10));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the first day of the event, or null if its start and end are not dates.
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Returns the last day of the event (the start day if only the start is a date),
+     * or null if its start and end are not dates.
+     */
+    public LocalDate getEndDate() {
+        return endDate;
     }
 
     /**
@@ -39,7 +93,7 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (from: " + from + " to: " + to + ")";
+    protected String render() {
+        return "[E]" + super.render() + " (from: " + from + " to: " + to + ")";
     }
 }
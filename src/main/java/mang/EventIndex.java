@@ -0,0 +1,179 @@
+package mang;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Interval index over the pending (not done) {@link Event}s whose days are known, used by {@link TaskList}
+ * for date-range queries. It is a treap ordered by start day, where every node also records the latest
+ * end day in its subtree, so an overlap query skips every subtree that ends before the range.
+ * Adding and removing an event is O(log n) expected; a query returning k events costs O(log n + k)
+ * for typical (short) events.
+ */
+public class EventIndex {
+    private final Map<Task, Node> nodes = new IdentityHashMap<>(); // tasks can be equal() without being the same
+    private final Random priorities = new Random();
+    private Node root;
+    private long nextSequence;
+
+    private static final class Node {
+        final Event task;
+        final LocalDate start;
+        final LocalDate end;
+        final long sequence; // orders events that start on the same day
+        final int priority;
+        LocalDate maxEnd;
+        Node left;
+        Node right;
+
+        Node(Event task, long sequence, int priority) {
+            this.task = task;
+            this.start = task.getStartDate();
+            this.end = task.getEndDate();
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(Node other) {
+            int c = start.compareTo(other.start);
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+
+    /**
+     * Indexes {@code task} if it is a pending event with known days that is not indexed yet;
+     * other tasks are ignored.
+     */
+    void add(Task task) {
+        if (!(task instanceof Event) || task.isDone() || ((Event) task).getStartDate() == null
+                || nodes.containsKey(task)) {
+            return;
+        }
+        Node node = new Node((Event) task, nextSequence++, priorities.nextInt());
+        nodes.put(task, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes {@code task} from the index, e.g. because it was deleted or marked done.
+     */
+    void remove(Task task) {
+        Node node = nodes.remove(task);
+        if (node != null) {
+            root = remove(root, node);
+        }
+    }
+
+    /**
+     * Returns the events that take place on at least one day from {@code from} to {@code to} (inclusive),
+     * earliest start first.
+     */
+    List<Event> overlapping(LocalDate from, LocalDate to) {
+        List<Event> found = new ArrayList<>();
+        collect(root, from, to, found);
+        return found;
+    }
+
+    private static void collect(Node node, LocalDate from, LocalDate to, List<Event> found) {
+        if (node == null || node.maxEnd.isBefore(from)) {
+            return; // everything below ends before the range
+        }
+        collect(node.left, from, to, found);
+        if (node.start.isAfter(to)) {
+            return; // this node and its right subtree start after the range
+        }
+        if (!node.end.isBefore(from)) {
+            found.add(node.task);
+        }
+        collect(node.right, from, to, found);
+    }
+
+    private static Node insert(Node t, Node node) {
+        if (t == null) {
+            return node;
+        }
+        if (node.priority > t.priority) {
+            Node[] parts = split(t, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            node.update();
+            return node;
+        }
+        if (node.compareTo(t) < 0) {
+            t.left = insert(t.left, node);
+        } else {
+            t.right = insert(t.right, node);
+        }
+        t.update();
+        return t;
+    }
+
+    private static Node remove(Node t, Node node) {
+        if (t == null) {
+            return null;
+        }
+        if (t == node) {
+            return merge(t.left, t.right);
+        }
+        if (node.compareTo(t) < 0) {
+            t.left = remove(t.left, node);
+        } else {
+            t.right = remove(t.right, node);
+        }
+        t.update();
+        return t;
+    }
+
+    /**
+     * Splits {@code t} into the nodes ordered before {@code key} and the rest.
+     */
+    private static Node[] split(Node t, Node key) {
+        if (t == null) {
+            return new Node[2];
+        }
+        if (t.compareTo(key) < 0) {
+            Node[] parts = split(t.right, key);
+            t.right = parts[0];
+            t.update();
+            parts[0] = t;
+            return parts;
+        }
+        Node[] parts = split(t.left, key);
+        t.left = parts[1];
+        t.update();
+        parts[1] = t;
+        return parts;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+}
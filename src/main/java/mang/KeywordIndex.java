@@ -0,0 +1,109 @@
+package mang;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted trigram index over task descriptions, used by {@link TaskList#find(String)}.
+ * Each indexed task is represented by an {@link Entry} that caches its lower-cased description,
+ * so searching never lower-cases descriptions again.
+ */
+public class KeywordIndex {
+    private static final int GRAM = 3;
+
+    private final Map<String, Set<Entry>> postings = new HashMap<>();
+
+    /**
+     * One indexed task together with its position key in the owning list.
+     * Position keys only need to increase along the list; they are not list indexes.
+     */
+    static final class Entry {
+        Task task; // replaced by a marked copy when the task is marked
+        final String lowerDescription;
+        long position;
+
+        private Entry(Task task, long position) {
+            this.task = task;
+            this.lowerDescription = task.getDescription().toLowerCase();
+            this.position = position;
+        }
+    }
+
+    /**
+     * Indexes {@code task} and returns its entry.
+     *
+     * @param task     The task to index.
+     * @param position Position key of the task in the owning list.
+     * @return The entry to keep alongside the task.
+     */
+    Entry add(Task task, long position) {
+        Entry e = new Entry(task, position);
+        String text = e.lowerDescription;
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            postings.computeIfAbsent(text.substring(i, i + GRAM), k -> new HashSet<>()).add(e);
+        }
+        return e;
+    }
+
+    /**
+     * Removes a previously added entry from the index.
+     */
+    void remove(Entry e) {
+        String text = e.lowerDescription;
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            Set<Entry> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(e);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the entries whose description contains {@code lowerNeedle}, ordered by position.
+     * Needles of at least three characters are answered from the smallest matching posting list;
+     * shorter needles fall back to scanning {@code all}.
+     *
+     * @param lowerNeedle The lower-cased search string.
+     * @param all         Every entry of the owning list in list order, used for short needles; null slots are skipped.
+     * @param count       Number of slots of {@code all} in use.
+     * @return Matching entries in list order.
+     */
+    List<Entry> find(String lowerNeedle, Entry[] all, int count) {
+        List<Entry> matches = new ArrayList<>();
+        if (lowerNeedle.length() < GRAM) {
+            for (int i = 0; i < count; i++) {
+                if (all[i] != null && all[i].lowerDescription.contains(lowerNeedle)) {
+                    matches.add(all[i]);
+                }
+            }
+            return matches; // already in list order
+        }
+
+        Set<Entry> smallest = null;
+        for (int i = 0; i + GRAM <= lowerNeedle.length(); i++) {
+            Set<Entry> posting = postings.get(lowerNeedle.substring(i, i + GRAM));
+            if (posting == null) {
+                return matches; // some trigram occurs nowhere → no match
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        for (Entry e : smallest) {
+            if (e.lowerDescription.contains(lowerNeedle)) {
+                matches.add(e);
+            }
+        }
+        matches.sort(Comparator.comparingLong(e -> e.position));
+        return matches;
+    }
+}
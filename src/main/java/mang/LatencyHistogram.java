@@ -0,0 +1,115 @@
+package mang;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations into fixed buckets from 100 microseconds to 10 seconds, like a Prometheus histogram.
+ * Recording is lock-free and allocation-free, so it can sit on every command. Quantiles are estimated
+ * from the buckets: the estimate is the upper bound of the bucket the quantile falls in.
+ */
+public class LatencyHistogram {
+    private static final long[] BOUNDS_NANOS = {
+        100_000L, 250_000L, 500_000L,
+        1_000_000L, 2_500_000L, 5_000_000L,
+        10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L,
+        1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L,
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1]; // the last one is +Inf
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded durations in nanoseconds.
+     */
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Returns the number of finite buckets; bucket {@code bucketCount()} is the +Inf bucket.
+     */
+    public static int bucketCount() {
+        return BOUNDS_NANOS.length;
+    }
+
+    /**
+     * Returns the upper bound of finite bucket {@code i} in nanoseconds.
+     */
+    public static long upperBoundNanos(int i) {
+        return BOUNDS_NANOS[i];
+    }
+
+    /**
+     * Returns how many durations are at most the upper bound of bucket {@code i}, as Prometheus buckets count;
+     * {@code i == bucketCount()} gives the total.
+     */
+    public long cumulativeCount(int i) {
+        long count = 0;
+        for (int b = 0; b <= i; b++) {
+            count += buckets[b].sum();
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the {@code q} quantile (e.g. 0.99) as the upper bound of its bucket, capped at the longest duration
+     * recorded. Returns 0 if nothing was recorded.
+     *
+     * @param q The quantile, from 0 to 1.
+     * @return The estimate in nanoseconds.
+     */
+    public long quantileNanos(double q) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long max = maxNanos.get();
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(BOUNDS_NANOS[i], max);
+            }
+        }
+        return max;
+    }
+}
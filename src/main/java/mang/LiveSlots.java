@@ -0,0 +1,61 @@
+package mang;
+
+import java.util.BitSet;
+
+/**
+ * Counts the live (not deleted) slots of a {@link TaskList} in a Fenwick tree, so that the slot holding
+ * the k-th live task can be found, and a slot retired, in O(log n) without moving any other task.
+ */
+public class LiveSlots {
+    private final int[] tree; // 1-based Fenwick tree over slots 0..capacity-1
+    private final int highBit;
+
+    /**
+     * Creates the counts for {@code capacity} slots, of which the first {@code used} are live
+     * except those marked in {@code isRemoved}.
+     */
+    LiveSlots(int capacity, int used, BitSet isRemoved) {
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= used && !isRemoved.get(i - 1)) {
+                tree[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+        highBit = Integer.highestOneBit(Math.max(capacity, 1));
+    }
+
+    /**
+     * Returns the number of slots these counts cover.
+     */
+    int capacity() {
+        return tree.length - 1;
+    }
+
+    /**
+     * Adds {@code delta} (+1 for a new live slot, -1 for a deleted one) to the count of {@code slot}.
+     */
+    void update(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the slot of the live task with zero-based rank {@code k}.
+     */
+    int select(int k) {
+        int pos = 0;
+        for (int step = highBit; step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] <= k) {
+                pos = next;
+                k -= tree[next];
+            }
+        }
+        return pos;
+    }
+}
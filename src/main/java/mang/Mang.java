@@ -1,32 +1,105 @@
 package mang;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 /**
  * Represents the main class for the Mang chatbot.
  * It contains the core logic for processing user commands and managing tasks.
+ * Commands are looked up in a {@link CommandRegistry} shared by the CLI and the GUI.
  */
 public class Mang {
-
-    private final Ui ui;
-    private final Storage storage;
-    private final TaskList tasks;
+    /** How many lines a long response writes between checks for cancellation. */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    /** Tasks per page of {@code list page N}, and the most a collected reply lists at once; -Dmang.page.size. */
+    private static final int PAGE_SIZE = Math.max(1, Integer.getInteger("mang.page.size", 100));
+    private static final int DEFAULT_DUE_COUNT = 10;
+    /** Seconds between writes of -Dmang.metrics.file; -Dmang.metrics.interval. */
+    private static final long METRICS_INTERVAL_SECONDS = Long.getLong("mang.metrics.interval", 60);
+    /** How many workspaces stay in memory; -Dmang.workspaces.max. */
+    private static final int MAX_LOADED_WORKSPACES = Integer.getInteger("mang.workspaces.max", 4);
+
+    private final Workspaces workspaces;
+    // the workspace in use, swapped in one write by activate() while holding updateLock; every command reads it
+    // once, so it never mixes the tasks of one workspace with the storage of another
+    private volatile Workspaces.Workspace workspace;
+    private boolean isWorkspacePinned; // set before the chatbot is shared, see pinWorkspace()
+    private final CommandRegistry commands = new CommandRegistry();
+    private final Metrics metrics;
+    private final ReentrantLock updateLock = new ReentrantLock(); // one command changing the tasks at a time
+    private boolean isBatching; // defer persistence until the batch ends
+    private boolean isDirtyBatch;
 
     /**
      * Constructor for the Mang chatbot.
      * Initializes storage and loads tasks from the data file.
      */
     public Mang() {
-        ui = new Ui();
-        storage = new Storage();
-        Task[] loaded = new Task[100];
-        int loadedCount;
+        this(new Storage());
+    }
+
+    private Mang(Storage storage) {
+        this(storage, loadOrEmpty(storage));
+    }
+
+    /**
+     * Creates a chatbot over tasks that have already been loaded from {@code storage}.
+     * They form the {@value Workspaces#DEFAULT_NAME} workspace; the others are kept next to its data file.
+     *
+     * @param storage Where changes are persisted.
+     * @param tasks   The loaded tasks.
+     */
+    public Mang(Storage storage, TaskList tasks) {
+        this.workspaces = new Workspaces(storage, tasks, MAX_LOADED_WORKSPACES);
+        this.metrics = new Metrics(commands, storage, tasks);
+        activate(workspaces.open(Workspaces.DEFAULT_NAME));
+        registerCommands();
+        String metricsFile = System.getProperty("mang.metrics.file");
+        if (metricsFile != null && !metricsFile.isBlank()) {
+            metrics.startDumping(Paths.get(metricsFile), METRICS_INTERVAL_SECONDS);
+        }
+    }
+
+    private static TaskList loadOrEmpty(Storage storage) {
         try {
-            loadedCount = storage.load(loaded);
+            return storage.load();
         } catch (StorageException se) {
             // GUI에서는 에러를 문자열로 반환
             // 여기서는 간단하게 초기화
-            loadedCount = 0;
+            return new TaskList();
         }
-        tasks = new TaskList(loaded, loadedCount);
+    }
+
+    private void registerCommands() {
+        commands.register("bye", this::bye);
+        commands.registerQuery("list", this::list);
+        commands.register("mark", this::mark);
+        commands.register("unmark", this::unmark);
+        commands.register("todo", (input, reply) -> addTask(Parser.parseTodo(input), reply));
+        commands.register("deadline", (input, reply) -> addTask(Parser.parseDeadline(input), reply));
+        commands.register("event", (input, reply) -> addTask(Parser.parseEvent(input), reply));
+        commands.register("delete", this::delete);
+        commands.registerQuery("find", this::find);
+        commands.register("sort", this::sort);
+        commands.registerQuery("due", this::due);
+        commands.registerQuery("overdue", this::overdue);
+        commands.registerQuery("happening", this::happening);
+        commands.registerQuery("stats", this::stats);
+        commands.register("use", this::use);
+        commands.register("switch", this::use);
+        commands.registerQuery("workspaces", this::listWorkspaces);
     }
 
     /**
@@ -37,213 +110,631 @@ public class Mang {
      * @return A string containing the chatbot's response.
      */
     public String getResponse(String input) {
+        TextReply reply = new TextReply();
         try {
-            if (Parser.isBye(input)) {
-                return "Bye. Hope to see you again soon!";
-
-            } else if (Parser.isList(input)) {
-                return formatList();
-
-            } else if (Parser.startsWith(input, "mark")) {
-                int idx = Parser.parseIndexAfter(input, "mark");
-                Task t = tasks.mark(idx);
-                persistGui();
-                return "Nice! I've marked this task as done:\n  " + t;
-
-            } else if (Parser.startsWith(input, "unmark")) {
-                int idx = Parser.parseIndexAfter(input, "unmark");
-                Task t = tasks.unmark(idx);
-                persistGui();
-                return "OK, I've marked this task as not done yet:\n  " + t;
-                // ↓↓↓ duplicated add logic refactored into addTask() ↓↓↓
-            } else if (input.startsWith("todo")) {
-                return addTask(Parser.parseTodo(input));
-
-            } else if (input.startsWith("deadline")) {
-                return addTask(Parser.parseDeadline(input));
-
-            } else if (input.startsWith("event")) {
-                return addTask(Parser.parseEvent(input));
-
-            } else if (Parser.startsWith(input, "delete")) {
-                int idx = Parser.parseIndexAfter(input, "delete");
-                Task removed = tasks.delete(idx);
-                persistGui();
-                return "Noted. I've removed this task:\n  " + removed
-                        + "\nNow you have " + tasks.size() + " tasks in the list.";
-
-            } else if (Parser.isFind(input)) {
-                String keyword = Parser.parseFindKeyword(input);
-                Task[] found = tasks.find(keyword);
-                return formatFound(found);
-
-            } else if (Parser.isSort(input)) {
-                String sortType = Parser.parseSortType(input);
-                if ("deadline".equalsIgnoreCase(sortType)) {
-                    tasks.sortByDeadline();
-                    persistGui();
-                    return "Tasks have been sorted by deadline.\n" + formatList();
-                } else {
-                    tasks.sortByDescription();
-                    persistGui();
-                    return "Tasks have been sorted by description.\n" + formatList();
-                }
-            } else {
-                throw new UnsupportedOperationException("Unknown command: " + input);
+            dispatch(input, reply);
+        } catch (CancellationException ce) {
+            return "OOPS! " + ce.getMessage(); // drop the part of a listing built before the cancel
+        } catch (Exception e) {
+            reply.line("OOPS! " + e.getMessage());
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Collects response lines into one newline-separated String.
+     */
+    private static final class TextReply implements Reply {
+        private final StringBuilder sb = new StringBuilder();
+
+        @Override
+        public void line(String text) {
+            if (sb.length() > 0) {
+                sb.append('\n');
             }
+            sb.append(text);
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Processes a user command and writes the response line by line to {@code reply}.
+     * Errors are reported to the user as an "OOPS!" line instead of being thrown.
+     *
+     * @param input The command string entered by the user.
+     * @param reply Where the response lines go.
+     */
+    public void respond(String input, Reply reply) {
+        try {
+            dispatch(input, reply);
         } catch (Exception e) {
-            return "OOPS! " + e.getMessage(); // 예외 메시지를 문자열로 반환
+            reply.line("OOPS! " + e.getMessage()); // 예외 메시지를 문자열로 반환
         }
     }
 
+    /**
+     * Runs a command. Queries run straight away; commands that change the tasks run one at a time,
+     * so that with several clients (see {@link ConcurrentTaskList}) each change is journaled in the order
+     * it was applied.
+     */
+    private void dispatch(String input, Reply reply) {
+        if (commands.isQuery(input)) {
+            commands.dispatch(input, reply);
+            return;
+        }
+        updateLock.lock();
+        try {
+            commands.dispatch(input, reply);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Runs many commands in a row and persists the result once at the end, instead of once per command.
+     * Blank lines are skipped and {@code bye} ends the batch early.
+     * If {@code isAtomic} is set, the first failing command stops the batch and undoes all of its changes.
+     *
+     * @param inputs   The command lines, e.g. the lines of a script.
+     * @param isAtomic Whether the batch is all-or-nothing.
+     * @return The responses and the outcome of the batch.
+     * @throws StorageException If the final save fails.
+     */
+    public BatchResult runBatch(Iterable<String> inputs, boolean isAtomic) {
+        updateLock.lock(); // other clients' changes wait until the batch is done
+        try {
+            return runBatchExclusively(inputs, isAtomic);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private BatchResult runBatchExclusively(Iterable<String> inputs, boolean isAtomic) {
+        Workspaces.Workspace ws = workspace;
+        List<String> responses = new ArrayList<>();
+        TaskSnapshot before = ws.tasks.snapshot(); // marking copies tasks, so this keeps their old status too
+
+        int failed = 0;
+        int number = 0;
+        isBatching = true;
+        isDirtyBatch = false;
+        try {
+            for (String raw : inputs) {
+                String input = raw.trim();
+                if (input.isEmpty()) {
+                    continue;
+                }
+                number++;
+                if (Parser.isBye(input)) {
+                    break;
+                }
+                TextReply reply = new TextReply();
+                try {
+                    commands.dispatch(input, reply);
+                } catch (Exception e) {
+                    reply.line("OOPS! " + e.getMessage());
+                    if (failed == 0) {
+                        failed = number;
+                    }
+                }
+                responses.add(reply.toString());
+                if (failed != 0 && isAtomic) {
+                    break;
+                }
+            }
+        } finally {
+            isBatching = false;
+        }
+
+        if (failed != 0 && isAtomic) {
+            ws.tasks.restore(before.toArray());
+            return new BatchResult(responses, failed, true);
+        }
+        if (isDirtyBatch) {
+            ws.persister.scheduleSave(ws.tasks.snapshot());
+            ws.persister.flush();
+        }
+        return new BatchResult(responses, failed, false);
+    }
+
+    /**
+     * Returns the registry of commands, e.g. to read per-command timings.
+     */
+    public CommandRegistry getCommands() {
+        return commands;
+    }
+
+    /**
+     * Returns the metrics of this chatbot, e.g. to export them.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void bye(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        ws.persister.flush();
+        reply.line("Bye. Hope to see you again soon!");
+    }
+
+    private void list(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        int[] range = Parser.parseListRange(input, PAGE_SIZE);
+        if (range == null) {
+            formatList(reply);
+            return;
+        }
+        TaskSnapshot shown = ws.tasks.snapshot();
+        if (range[0] > shown.size()) {
+            throw new IllegalArgumentException(shown.size() == 0 ? "Your task list is empty."
+                    : "There are only " + shown.size() + " tasks in your list.");
+        }
+        formatRange(shown, range[0], Math.min(range[1], shown.size()), reply);
+    }
+
+    private void mark(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        TaskSelection selection = Parser.parseSelectionAfter(input, "mark");
+        if (!selection.isSingle()) {
+            Task[] marked = selectAndApply(selection, ws.tasks::markAll, ws.storage::appendMark, reply);
+            if (marked.length > 0) {
+                reply.line("Nice! I've marked these " + marked.length + " tasks as done:");
+                formatAffected(marked, reply);
+            }
+            return;
+        }
+        int idx = selection.single();
+        Task t = ws.tasks.mark(idx);
+        persist(() -> ws.storage.appendMark(idx));
+        reply.line("Nice! I've marked this task as done:");
+        reply.line("  " + t);
+    }
+
+    private void unmark(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        TaskSelection selection = Parser.parseSelectionAfter(input, "unmark");
+        if (!selection.isSingle()) {
+            Task[] unmarked = selectAndApply(selection, ws.tasks::unmarkAll, ws.storage::appendUnmark, reply);
+            if (unmarked.length > 0) {
+                reply.line("OK, I've marked these " + unmarked.length + " tasks as not done yet:");
+                formatAffected(unmarked, reply);
+            }
+            return;
+        }
+        int idx = selection.single();
+        Task t = ws.tasks.unmark(idx);
+        persist(() -> ws.storage.appendUnmark(idx));
+        reply.line("OK, I've marked this task as not done yet:");
+        reply.line("  " + t);
+    }
+
+    private void delete(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        TaskSelection selection = Parser.parseSelectionAfter(input, "delete");
+        if (!selection.isSingle()) {
+            Task[] removed = selectAndApply(selection, ws.tasks::deleteAll, ws.storage::appendDelete, reply);
+            if (removed.length > 0) {
+                reply.line("Noted. I've removed these " + removed.length + " tasks:");
+                formatAffected(removed, reply);
+                reply.line("Now you have " + ws.tasks.size() + " tasks in the list.");
+            }
+            return;
+        }
+        int idx = selection.single();
+        Task removed = ws.tasks.delete(idx);
+        persist(() -> ws.storage.appendDelete(idx));
+        reply.line("Noted. I've removed this task:");
+        reply.line("  " + removed);
+        reply.line("Now you have " + ws.tasks.size() + " tasks in the list.");
+    }
+
+    /**
+     * Applies a multi-task command to every selected task in one pass and persists the result once.
+     * The journal records the resolved task numbers, so replaying it does not depend on which tasks were done.
+     * Replies on its own if nothing was selected.
+     *
+     * @return the affected tasks
+     */
+    private Task[] selectAndApply(TaskSelection selection, Function<int[], Task[]> action,
+            Consumer<TaskSelection> journal, Reply reply) {
+        int[] numbers = selection.resolve(workspace.tasks);
+        if (numbers.length == 0) {
+            reply.line("No tasks matched '" + selection + "'.");
+            return new Task[0];
+        }
+        Task[] affected = action.apply(numbers);
+        TaskSelection resolved = TaskSelection.of(numbers);
+        persist(() -> journal.accept(resolved));
+        return affected;
+    }
+
+    private void formatAffected(Task[] affected, Reply reply) {
+        for (int i = 0; i < affected.length; i++) {
+            checkCancelled(i);
+            reply.line("  " + affected[i]);
+        }
+    }
+
+    private void find(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        String keyword = Parser.parseFindKeyword(input);
+        formatFound(ws.tasks.find(keyword), reply);
+    }
+
+    /**
+     * Answers {@code due next [N]}, {@code due before DATE} and {@code due between A and B} from the date indexes,
+     * without reordering the list.
+     */
+    private void due(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        String query = input.substring("due".length()).trim();
+        if (query.equals("next") || query.startsWith("next ")) {
+            int n = Parser.parseCount(query.substring("next".length()), DEFAULT_DUE_COUNT);
+            formatMatches("Here are the next deadlines:", ws.tasks.nextDue(n).toArray(new Task[0]),
+                    "You have no pending deadlines.", reply);
+        } else if (query.startsWith("before ")) {
+            LocalDate date = Parser.parseDate(query.substring("before ".length()));
+            formatMatches("Here are the deadlines due before " + date + ":",
+                    ws.tasks.dueBefore(date).toArray(new Task[0]), "Nothing is due before " + date + ".", reply);
+        } else if (query.startsWith("between ") && query.contains(" and ")) {
+            String range = query.substring("between ".length());
+            int and = range.indexOf(" and ");
+            LocalDate from = Parser.parseDate(range.substring(0, and));
+            LocalDate to = Parser.parseDate(range.substring(and + " and ".length()));
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("The range ends before it starts: " + from + " to " + to + ".");
+            }
+            formatMatches("Here are the tasks from " + from + " to " + to + ":",
+                    ws.tasks.dueBetween(from, to).toArray(new Task[0]),
+                    "Nothing is due from " + from + " to " + to + ".", reply);
+        } else {
+            throw new UnsupportedOperationException("Unknown command: " + input
+                    + ". Try 'due next 10', 'due before 2019-10-15' or 'due between 2019-10-01 and 2019-10-31'.");
+        }
+    }
+
+    private void happening(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        String query = input.substring("happening".length()).trim();
+        if (!query.startsWith("on ")) {
+            throw new UnsupportedOperationException("Unknown command: " + input + ". Try 'happening on 2019-10-15'.");
+        }
+        LocalDate date = Parser.parseDate(query.substring("on ".length()));
+        formatMatches("Here are the events on " + date + ":", ws.tasks.happeningOn(date).toArray(new Task[0]),
+                "Nothing is happening on " + date + ".", reply);
+    }
+
+    private void overdue(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        if (!input.substring("overdue".length()).isBlank()) {
+            throw new UnsupportedOperationException("Unknown command: " + input);
+        }
+        formatMatches("Here are your overdue deadlines:", ws.tasks.dueBefore(LocalDate.now()).toArray(new Task[0]),
+                "Nothing is overdue. Well done!", reply);
+    }
+
+    /**
+     * Switches to another workspace, loading it on first use. Changes still queued for the workspace being left
+     * are written first, so they never end up in the new one.
+     */
+    private void use(String input, Reply reply) {
+        if (isWorkspacePinned) {
+            throw new UnsupportedOperationException("This chatbot is shared, so it stays in workspace '"
+                    + workspace.name + "'.");
+        }
+        if (isBatching) {
+            throw new UnsupportedOperationException("Workspaces cannot be switched inside a batch.");
+        }
+        String name = Parser.parseWorkspaceName(input, Parser.commandWord(input));
+        workspace.persister.flush();
+        Workspaces.Workspace next = workspaces.open(name);
+        activate(next);
+        reply.line("Now using workspace '" + name + "' with " + next.tasks.size() + " tasks.");
+        if (next.storage.getSkippedLineCount() > 0) {
+            reply.line("Warning: skipped " + next.storage.getSkippedLineCount()
+                    + " corrupted line(s) while loading it.");
+        }
+        workspaces.evictIdle();
+    }
+
+    private void activate(Workspaces.Workspace next) {
+        workspace = next;
+        metrics.track(next.storage, next.tasks);
+    }
+
+    /**
+     * Keeps this chatbot in the workspace it is using now: {@code use} and {@code switch} are refused from then on.
+     * A front end that shares one chatbot between several clients calls this, so that one client cannot move
+     * the others to another workspace.
+     */
+    public void pinWorkspace() {
+        updateLock.lock(); // waits for a switch in progress
+        try {
+            isWorkspacePinned = true;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void listWorkspaces(String input, Reply reply) {
+        if (!input.substring("workspaces".length()).isBlank()) {
+            throw new UnsupportedOperationException("Unknown command: " + input);
+        }
+        String current = workspace.name;
+        reply.line("Here are your workspaces:");
+        for (String name : workspaces.names()) {
+            int size = workspaces.loadedSize(name);
+            String state = name.equals(current) ? " (in use, " + size + " tasks)"
+                    : size >= 0 ? " (loaded, " + size + " tasks)" : "";
+            reply.line("  " + name + state);
+        }
+    }
+
+    /**
+     * Returns the name of the workspace in use.
+     */
+    public String getWorkspaceName() {
+        return workspace.name;
+    }
+
+    private void stats(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        if (!input.substring("stats".length()).isBlank()) {
+            throw new UnsupportedOperationException("Unknown command: " + input);
+        }
+        reply.line("Here are my statistics:");
+        reply.line("Tasks: " + ws.tasks.size());
+        reply.line("Last load: " + millis(ws.storage.getLoadNanos()));
+        LatencyHistogram saves = ws.storage.getSaveLatency();
+        if (saves.count() == 0) {
+            reply.line("Saves: none yet");
+        } else {
+            reply.line("Saves: " + saves.count() + ", " + millis(saves.sumNanos() / saves.count()) + " on average, "
+                    + ws.storage.getLastSaveBytes() + " bytes last time, " + ws.storage.getSavedBytes()
+                    + " bytes in all");
+        }
+        LatencyHistogram appends = ws.storage.getAppendLatency();
+        if (appends.count() > 0) {
+            reply.line("Journal appends: " + appends.count() + ", " + millis(appends.sumNanos() / appends.count())
+                    + " on average, " + ws.storage.getAppendedBytes() + " bytes in all");
+        }
+        List<String> used = metrics.usedCommands();
+        if (used.isEmpty()) {
+            return;
+        }
+        reply.line("Commands (runs, median, 99th percentile, rounded up to a histogram bucket):");
+        for (String word : used) {
+            LatencyHistogram latency = commands.latency(word);
+            reply.line("  " + word + ": " + latency.count() + ", " + millis(latency.quantileNanos(0.5)) + ", "
+                    + millis(latency.quantileNanos(0.99)));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+    }
+
+    private void sort(String input, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        String sortType = Parser.parseSortType(input);
+        if ("deadline".equalsIgnoreCase(sortType)) {
+            ws.tasks.sortByDeadline();
+            persist(() -> ws.storage.appendSort("deadline"));
+            reply.line("Tasks have been sorted by deadline.");
+        } else {
+            ws.tasks.sortByDescription();
+            persist(() -> ws.storage.appendSort("description"));
+            reply.line("Tasks have been sorted by description.");
+        }
+        formatList(reply);
+    }
+
     /**
      * Helper method extracted from getResponse() with the help of ChatGPT
      * to reduce duplication when adding tasks.
      *
      * @param t the Task to add
-     * @return the formatted string to show to the user
+     * @param reply where the confirmation goes
      */
-    private String addTask(Task t) {
-        Task added = tasks.add(t);
-        persistGui();
-        return formatAdded(t);
+    private void addTask(Task t, Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        Task added = ws.tasks.add(t);
+        persist(() -> ws.storage.appendAdd(added));
+        reply.line("Got it. I've added this task:");
+        reply.line("  " + added);
+        reply.line("Now you have " + ws.tasks.size() + " tasks in the list.");
     }
 
-    // Convert the methods of the Ui class to string return types
-    private String formatAdded(Task t) {
-        return "Got it. I've added this task:\n  " + t
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+    /**
+     * Lists every task. A reply that collects its lines gets only the first page of a long list,
+     * so no String holding the whole list is ever built; the CLI streams all of it.
+     * The tasks come from one O(1) snapshot, so a change made meanwhile by another client never shows halfway.
+     */
+    private void formatList(Reply reply) {
+        Workspaces.Workspace ws = workspace;
+        TaskSnapshot shown = ws.tasks.snapshot();
+        if (shown.size() == 0) {
+            reply.line("Your task list is empty.");
+            return;
+        }
+        if (!reply.isStreaming() && shown.size() > PAGE_SIZE) {
+            formatRange(shown, 1, PAGE_SIZE, reply);
+            return;
+        }
+        reply.line("Here are the tasks in your list:");
+        int i = 0;
+        for (Task t : shown) {
+            checkCancelled(i);
+            reply.line(++i + "." + t);
+        }
     }
 
-    private String formatList() {
-        if (tasks.size() == 0) {
-            return "Your task list is empty.";
+    /**
+     * Lists tasks {@code from} to {@code to} (1-based, inclusive, within the list) with their list numbers,
+     * and tells the user how to see more.
+     */
+    private void formatRange(TaskSnapshot shown, int from, int to, Reply reply) {
+        reply.line("Here are tasks " + from + "-" + to + " of " + shown.size() + " in your list:");
+        for (int i = from - 1; i < to; i++) {
+            checkCancelled(i);
+            reply.line((i + 1) + "." + shown.get(i));
         }
-        StringBuilder sb = new StringBuilder("Here are the tasks in your list:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(" ").append(i + 1).append(".").append(tasks.get(i)).append("\n");
+        if (to < shown.size()) {
+            reply.line("Type 'list page " + (to / PAGE_SIZE + 1) + "' or 'list " + (to + 1) + "-"
+                    + Math.min(to + PAGE_SIZE, shown.size()) + "' to see more.");
         }
-        return sb.toString().trim();
     }
 
-    private String formatFound(Task[] results) {
+    private void formatFound(Task[] results, Reply reply) {
+        formatMatches("Here are the matching tasks in your list:", results, "No matching tasks found.", reply);
+    }
+
+    /**
+     * Lists query results numbered from 1, or {@code emptyMessage} if there are none.
+     * A reply that collects its lines gets at most one page of them.
+     */
+    private void formatMatches(String header, Task[] results, String emptyMessage, Reply reply) {
         if (results.length == 0) {
-            return "No matching tasks found.";
+            reply.line(emptyMessage);
+            return;
+        }
+        reply.line(header);
+        int shown = reply.isStreaming() ? results.length : Math.min(results.length, PAGE_SIZE);
+        for (int i = 0; i < shown; i++) {
+            checkCancelled(i);
+            reply.line((i + 1) + "." + results[i]);
         }
-        StringBuilder sb = new StringBuilder("Here are the matching tasks in your list:\n");
-        for (int i = 0; i < results.length; i++) {
-            sb.append(" ").append(i + 1).append(".").append(results[i]).append("\n");
+        if (shown < results.length) {
+            reply.line("...and " + (results.length - shown) + " more. Narrow the query to see them.");
+        }
+    }
+
+    /**
+     * Stops a long listing once the thread running it has been interrupted, e.g. by the GUI's cancel button.
+     *
+     * @param i How many lines have been written so far.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    private static void checkCancelled(int i) {
+        if (i % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Command cancelled.");
         }
-        return sb.toString().trim();
     }
 
     /**
      * Save your work to a file.
+     * The write happens on the background persister; only a snapshot of the list is taken here.
+     * In journal mode only {@code journalRecord} is appended, unless the journal is due for compaction.
+     *
+     * @throws StorageException if an earlier background write failed
      */
-    private void persistGui() throws StorageException {
-        storage.save(tasks.backingArray(), tasks.size());
+    private void persist(Runnable journalRecord) throws StorageException {
+        if (isBatching) {
+            isDirtyBatch = true;
+            return;
+        }
+        Workspaces.Workspace ws = workspace;
+        if (ws.storage.isJournaling() && !ws.storage.needsCompaction()) {
+            ws.persister.scheduleAppend(journalRecord);
+        } else {
+            ws.persister.scheduleSave(ws.tasks.snapshot());
+        }
+        ws.persister.rethrowFailure();
     }
 
     /**
-     * Runs the CLI loop: reads commands, mutates task list, and persists changes.
+     * Writes out any pending changes of every loaded workspace and stops their background persisters.
+     * Called when the application shuts down.
      *
-     * @param args Unused CLI arguments.
+     * @throws StorageException if a pending write failed
+     */
+    public void shutdown() {
+        try {
+            workspaces.shutdown();
+        } finally {
+            metrics.stopDumping(); // the last dump includes the final saves
+        }
+    }
+
+    /**
+     * Runs the CLI loop: reads commands and prints each response as it is produced.
+     * With {@code --batch <file>} (or {@code --batch -} for standard input) the commands are run as one batch
+     * instead; add {@code --atomic} to roll everything back if any command fails.
+     *
+     * @param args Optional batch-mode arguments.
      */
     public static void main(String[] args) {
         Ui ui = new Ui();
         Storage storage = new Storage();
 
         // Load tasks from disk
-        Task[] loaded = new Task[100];
-        int loadedCount;
+        TaskList tasks;
         try {
-            loadedCount = storage.load(loaded);
+            tasks = storage.load();
         } catch (StorageException se) {
             ui.showError("Storage error: " + se.getMessage());
             return; // Fail fast on startup load errors.
         }
+        if (storage.getSkippedLineCount() > 0) {
+            ui.showError("Warning: skipped " + storage.getSkippedLineCount()
+                    + " corrupted line(s) while loading your tasks.");
+        }
 
-        TaskList tasks = new TaskList(loaded, loadedCount);
+        Mang mang = new Mang(storage, tasks);
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            runBatchFromArgs(mang, args, ui);
+            return;
+        }
         ui.showWelcome();
 
-        while (true) {
-            String input = ui.readCommand();
-            try {
-                if (Parser.isBye(input)) {
-                    ui.showBye();
-                    break;
-
-                } else if (Parser.isList(input)) {
-                    ui.showList(tasks);
-
-                } else if (Parser.startsWith(input, "mark")) {
-                    int idx = Parser.parseIndexAfter(input, "mark");
-                    Task t = tasks.mark(idx);
-                    persist(storage, tasks, ui);
-                    ui.showMarked(t);
-
-                } else if (Parser.startsWith(input, "unmark")) {
-                    int idx = Parser.parseIndexAfter(input, "unmark");
-                    Task t = tasks.unmark(idx);
-                    persist(storage, tasks, ui);
-                    ui.showUnmarked(t);
-
-                } else if (input.startsWith("todo")) {
-                    Task t = tasks.add(Parser.parseTodo(input));
-                    persist(storage, tasks, ui);
-                    ui.showAdded(t, tasks.size());
-
-                } else if (input.startsWith("deadline")) {
-                    // FIX: Previously CLI was wrongly using parseTodo() for deadlines.
-                    //      Updated to use Parser.parseDeadline() for consistency with GUI.
-                    //      Change done with the help of ChatGPT (AI-assisted coding).
-                    Task t = tasks.add(Parser.parseDeadline(input));
-                    persist(storage, tasks, ui);
-                    ui.showAdded(t, tasks.size());
-
-                } else if (input.startsWith("event")) {
-                    // FIX: Previously CLI was wrongly using parseTodo() for events.
-                    //      Updated to use Parser.parseEvent() for consistency with GUI.
-                    //      Change done with the help of ChatGPT (AI-assisted coding).
-                    Task t = tasks.add(Parser.parseEvent(input));
-                    persist(storage, tasks, ui);
-                    ui.showAdded(t, tasks.size());
-
-                } else if (Parser.startsWith(input, "delete")) {
-                    try {
-                        int idx = Parser.parseIndexAfter(input, "delete");
-                        Task removed = tasks.delete(idx);
-                        persist(storage, tasks, ui);
-                        ui.showRemoved(removed, tasks.size());
-                    } catch (NumberFormatException e) {
-                        ui.showError("Please provide a valid task number, e.g., 'delete 2'.");
-                    }
-
-                } else if (Parser.isFind(input)) {
-                    String keyword = Parser.parseFindKeyword(input);
-                    Task[] found = tasks.find(keyword);
-                    ui.showFound(found);
-
-                } else {
-                    throw new UnsupportedOperationException("Unknown command: " + input);
-                }
+        String input;
+        do {
+            input = ui.readCommand();
+            ui.showLine();
+            mang.respond(input, ui);
+            ui.showLine();
+        } while (!Parser.isBye(input));
 
-            } catch (NumberFormatException e) {
-                ui.showError("OOPS! That does not look like a valid number.");
-            } catch (IllegalArgumentException | UnsupportedOperationException e) {
-                ui.showError(e.getMessage());
-            } catch (Exception e) {
-                ui.showError("Unexpected error: " + e.getMessage());
-            }
+        try {
+            mang.shutdown();
+        } catch (StorageException se) {
+            ui.showError("Storage error: " + se.getMessage());
         }
     }
 
-    /**
-     * Persists the current tasks to storage; shows a user-friendly error if it fails.
-     */
-    private static void persist(Storage storage, TaskList tasks, Ui ui) {
-        try {
-            storage.save(tasks.backingArray(), tasks.size());
+    private static void runBatchFromArgs(Mang mang, String[] args, Ui ui) {
+        if (args.length < 2) {
+            ui.showError("Usage: --batch <file|-> [--atomic]");
+            return;
+        }
+        boolean isAtomic = args.length > 2 && "--atomic".equals(args[2]);
+        try (BufferedReader in = "-".equals(args[1])
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            BatchResult result = mang.runBatch(in.lines()::iterator, isAtomic);
+            for (String response : result.getResponses()) {
+                ui.showLine();
+                for (String line : response.split("\n")) {
+                    ui.line(line);
+                }
+            }
+            ui.showLine();
+            if (result.isRolledBack()) {
+                ui.line("Command " + result.getFailedCommandNumber() + " failed, so no changes were saved.");
+            } else if (!result.isSuccessful()) {
+                ui.line("Ran " + result.getResponses().size() + " commands; command "
+                        + result.getFailedCommandNumber() + " was the first to fail.");
+            } else {
+                ui.line("Ran " + result.getResponses().size() + " commands.");
+            }
+            ui.showLine();
+            mang.shutdown();
+        } catch (IOException e) {
+            ui.showError("Unable to read batch file: " + e.getMessage());
         } catch (StorageException se) {
             ui.showError("Storage error: " + se.getMessage());
         }
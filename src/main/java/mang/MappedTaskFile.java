@@ -0,0 +1,257 @@
+package mang;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * A text data file mapped into memory, of which only the start offset of each task line is kept.
+ * Opening it scans the bytes once to find and check the task lines without building any {@link Task};
+ * {@link #task(int)} builds one on demand. Used by {@link TaskList} for lazy loading (see
+ * {@link Storage#setLazyLoading(boolean)}).
+ *
+ * <p>Lines are checked with the same rules {@link Storage} uses when it loads the file eagerly,
+ * so both ways of loading yield the same tasks and the same skipped-line count.
+ * The mapping stays open until the object is garbage collected; on Windows this keeps the file
+ * from being replaced, so there lazy loading should only be used together with journal mode.
+ */
+public class MappedTaskFile {
+    private static final byte[] GENERATION_HEADER = "# generation ".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHECKED_FIELDS = 4;
+
+    private final MappedByteBuffer bytes;
+    private final int limit;
+    private int[] starts = new int[1024];
+    private int count;
+    private long generation;
+    private int skippedLines;
+
+    // field bounds of the line being checked; reused for every line
+    private final int[] fieldStart = new int[CHECKED_FIELDS];
+    private final int[] fieldEnd = new int[CHECKED_FIELDS];
+
+    private MappedTaskFile(MappedByteBuffer bytes) {
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+    }
+
+    /**
+     * Maps {@code file} and indexes its task lines.
+     *
+     * @return the indexed file, or null if it is too large to map as a single buffer (over 2 GB)
+     */
+    public static MappedTaskFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedTaskFile mapped = new MappedTaskFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            mapped.scan();
+            return mapped;
+        }
+    }
+
+    /**
+     * Returns the number of task lines.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the generation from the file's {@code # generation} header, or 0 if it has none.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns how many non-blank lines are not valid tasks.
+     */
+    public int getSkippedLineCount() {
+        return skippedLines;
+    }
+
+    /**
+     * Builds a new Task from task line {@code i} (0-based, counting valid task lines only).
+     */
+    public Task task(int i) {
+        int start = starts[i];
+        int end = lineEnd(start);
+        byte[] line = new byte[end - start];
+        bytes.get(start, line);
+        String text = new String(line, StandardCharsets.UTF_8);
+        try (TaskFileReader in = new TaskFileReader(new StringReader(text), text.length() + 1)) {
+            in.nextLine();
+            Task t = Storage.parseTask(in, 0);
+            if (t == null) {
+                throw new StorageException("Task line changed after it was checked: " + text);
+            }
+            return t;
+        } catch (IOException e) {
+            throw new StorageException("Unable to read task line: " + e.getMessage(), e); // cannot happen
+        }
+    }
+
+    private int lineEnd(int from) {
+        int i = from;
+        while (i < limit) {
+            byte b = bytes.get(i);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private void scan() {
+        int pos = 0;
+        while (pos < limit) {
+            int end = lineEnd(pos);
+            if (startsWith(pos, end, GENERATION_HEADER)) {
+                generation = parseGeneration(pos + GENERATION_HEADER.length, end);
+            } else if (!isBlank(pos, end)) {
+                if (isTask(pos, end)) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = pos;
+                } else {
+                    skippedLines++;
+                }
+            }
+            pos = end;
+            if (pos < limit && bytes.get(pos++) == '\r' && pos < limit && bytes.get(pos) == '\n') {
+                pos++; // \r\n ends a single line
+            }
+        }
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((bytes.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseGeneration(int start, int end) {
+        try {
+            return Long.parseLong(decode(start, end).trim());
+        } catch (NumberFormatException e) {
+            return -1; // unreadable header → never matches a journal
+        }
+    }
+
+    /**
+     * Returns true if the line would load as a task, following {@link TaskFileReader}'s field splitting
+     * and the checks in {@link Storage#parseTask}. Works on the raw bytes: '|' and whitespace are ASCII,
+     * so they never occur inside a multi-byte UTF-8 character.
+     */
+    private boolean isTask(int start, int end) {
+        int fields = 0;
+        int nonEmptyFields = 0; // fields up to the last non-empty one; trailing empty fields do not count
+        int fieldFrom = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && bytes.get(i) != '|') {
+                continue;
+            }
+            int fieldTo = i;
+            if (i < end) {
+                while (fieldTo > fieldFrom && isSpace(bytes.get(fieldTo - 1))) {
+                    fieldTo--;
+                }
+            }
+            if (fields < CHECKED_FIELDS) {
+                fieldStart[fields] = fieldFrom;
+                fieldEnd[fields] = fieldTo;
+            }
+            fields++;
+            if (fieldTo > fieldFrom) {
+                nonEmptyFields = fields;
+            }
+            fieldFrom = i + 1;
+            while (fieldFrom < end && isSpace(bytes.get(fieldFrom))) {
+                fieldFrom++;
+            }
+            i = fieldFrom - 1;
+        }
+        if (nonEmptyFields < 3 || fieldEnd[0] - fieldStart[0] != 1) {
+            return false;
+        }
+        byte type = bytes.get(fieldStart[0]);
+        if (type == 'T' || type == 'E') {
+            return true;
+        }
+        return type == 'D' && nonEmptyFields >= 4 && isDate(fieldStart[3], fieldEnd[3]);
+    }
+
+    /**
+     * Checks an ISO {@code yyyy-MM-dd} date without allocating; other spellings fall back to {@link LocalDate#parse}.
+     */
+    private boolean isDate(int start, int end) {
+        if (end - start == 10 && bytes.get(start + 4) == '-' && bytes.get(start + 7) == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return month >= 1 && month <= 12 && day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
+            }
+        }
+        try {
+            LocalDate.parse(decode(start, end));
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    private int digits(int from, int len) {
+        int value = 0;
+        for (int i = from; i < from + len; i++) {
+            byte b = bytes.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private String decode(int start, int end) {
+        byte[] raw = new byte[end - start];
+        bytes.get(start, raw);
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Matches the regex {@code \s} class, like {@link TaskFileReader}.
+     */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\u000B' || b == '\f' || b == '\r';
+    }
+}
@@ -0,0 +1,221 @@
+package mang;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects what Mang measures about itself and renders it in the Prometheus text exposition format:
+ * <ul>
+ *   <li>{@code mang_command_duration_seconds}: a histogram per command word (parsing, the task list
+ *       operation and formatting the reply)</li>
+ *   <li>{@code mang_save_duration_seconds} and {@code mang_saved_bytes_total}: full saves of the data file</li>
+ *   <li>{@code mang_journal_append_duration_seconds} and {@code mang_journal_appended_bytes_total}: records
+ *       appended to the journal, the usual write in journal mode</li>
+ *   <li>{@code mang_load_duration_seconds}: the last load of the data file</li>
+ *   <li>{@code mang_tasks}: the number of tasks</li>
+ * </ul>
+ * The storage and task metrics are those of the workspace in use (see {@link #track(Storage, TaskList)}).
+ *
+ * <p>{@link #startDumping(Path, long)} rewrites a file with these metrics periodically, e.g. for the textfile
+ * collector of the Prometheus node exporter. The file is replaced atomically, so readers never see half of it.
+ */
+public class Metrics {
+    private final CommandRegistry commands;
+    private volatile Source source; // swapped in one write, so storage and tasks always belong together
+    private ScheduledExecutorService dumper; // guarded by this
+    private Path dumpFile; // guarded by this
+
+    /**
+     * The storage and tasks of the workspace in use.
+     */
+    private static final class Source {
+        private final Storage storage;
+        private final TaskList tasks;
+
+        private Source(Storage storage, TaskList tasks) {
+            this.storage = storage;
+            this.tasks = tasks;
+        }
+    }
+
+    /**
+     * Creates the metrics of one chatbot.
+     *
+     * @param commands Its commands, which time themselves.
+     * @param storage  Its storage, which times loads and saves.
+     * @param tasks    Its tasks.
+     */
+    public Metrics(CommandRegistry commands, Storage storage, TaskList tasks) {
+        this.commands = commands;
+        this.source = new Source(storage, tasks);
+    }
+
+    /**
+     * Reports the storage and tasks of another workspace from now on, e.g. after the user switched to it.
+     *
+     * @param storage The storage of the workspace in use.
+     * @param tasks   Its tasks.
+     */
+    public void track(Storage storage, TaskList tasks) {
+        source = new Source(storage, tasks);
+    }
+
+    /**
+     * Returns the command words that have run at least once, sorted.
+     */
+    public List<String> usedCommands() {
+        List<String> used = new ArrayList<>();
+        for (String word : commands.words()) {
+            if (commands.invocationCount(word) > 0) {
+                used.add(word);
+            }
+        }
+        Collections.sort(used);
+        return used;
+    }
+
+    /**
+     * Returns the current metrics in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String toPrometheusText() {
+        StringBuilder sb = new StringBuilder();
+        header(sb, "mang_command_duration_seconds", "histogram",
+                "Time to run a command, from parsing it to the last line of its reply.");
+        List<String> words = new ArrayList<>(commands.words());
+        Collections.sort(words);
+        for (String word : words) {
+            histogram(sb, "mang_command_duration_seconds", "command=\"" + escape(word) + "\",",
+                    commands.latency(word));
+        }
+        Source current = source;
+        Storage storage = current.storage;
+        header(sb, "mang_save_duration_seconds", "histogram", "Time to write the whole data file.");
+        histogram(sb, "mang_save_duration_seconds", "", storage.getSaveLatency());
+        header(sb, "mang_saved_bytes_total", "counter", "Bytes written by saves of the whole data file.");
+        sample(sb, "mang_saved_bytes_total", "", Long.toString(storage.getSavedBytes()));
+        header(sb, "mang_last_save_bytes", "gauge", "Bytes written by the last save of the whole data file.");
+        sample(sb, "mang_last_save_bytes", "", Long.toString(storage.getLastSaveBytes()));
+        header(sb, "mang_journal_append_duration_seconds", "histogram", "Time to append one record to the journal.");
+        histogram(sb, "mang_journal_append_duration_seconds", "", storage.getAppendLatency());
+        header(sb, "mang_journal_appended_bytes_total", "counter", "Bytes appended to the journal.");
+        sample(sb, "mang_journal_appended_bytes_total", "", Long.toString(storage.getAppendedBytes()));
+        header(sb, "mang_load_duration_seconds", "gauge", "Time the last load of the data file took.");
+        sample(sb, "mang_load_duration_seconds", "", seconds(storage.getLoadNanos()));
+        header(sb, "mang_tasks", "gauge", "Number of tasks in the list.");
+        sample(sb, "mang_tasks", "", Integer.toString(current.tasks.size()));
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Appends the buckets, sum and count of {@code histogram}; {@code labels} is empty or ends with a comma.
+     */
+    private static void histogram(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        for (int i = 0; i < LatencyHistogram.bucketCount(); i++) {
+            sample(sb, name + "_bucket", labels + "le=\"" + seconds(LatencyHistogram.upperBoundNanos(i)) + "\",",
+                    Long.toString(histogram.cumulativeCount(i)));
+        }
+        long count = histogram.cumulativeCount(LatencyHistogram.bucketCount());
+        sample(sb, name + "_bucket", labels + "le=\"+Inf\",", Long.toString(count));
+        sample(sb, name + "_sum", labels, seconds(histogram.sumNanos()));
+        sample(sb, name + "_count", labels, Long.toString(count));
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, String value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels, 0, labels.length() - 1).append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Writes the current metrics to {@code file}, atomically replacing it.
+     *
+     * @param file The file to write, e.g. {@code data/mang.prom}.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, toPrometheusText().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the metrics to {@code file} now and every {@code intervalSeconds} after that, on a daemon thread,
+     * until {@link #stopDumping()}. A failed write is reported on standard error and retried at the next interval.
+     *
+     * @param file            The file to write.
+     * @param intervalSeconds Seconds between writes (at least 1).
+     * @throws IllegalStateException If the metrics are already being dumped.
+     */
+    public synchronized void startDumping(Path file, long intervalSeconds) {
+        if (dumper != null) {
+            throw new IllegalStateException("Metrics are already written to " + dumpFile);
+        }
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mang-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleWithFixedDelay(() -> dump(file), 0, Math.max(1, intervalSeconds), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump, if any, and writes the metrics one last time.
+     */
+    public synchronized void stopDumping() {
+        if (dumper == null) {
+            return;
+        }
+        dumper.shutdownNow();
+        try {
+            dumper.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dump(dumpFile);
+        dumper = null;
+        dumpFile = null;
+    }
+
+    private void dump(Path file) {
+        try {
+            writeTo(file);
+        } catch (IOException e) {
+            System.err.println("Unable to write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
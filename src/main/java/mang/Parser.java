@@ -2,6 +2,7 @@ package mang;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.Locale;
 
 /**
  * Parses raw user input into actionable parts or task objects.
@@ -10,6 +11,17 @@ public final class Parser {
     private Parser() {
     }
 
+    /**
+     * Returns the command word, i.e. everything before the first space (the whole input if there is none).
+     *
+     * @param input The raw user input.
+     * @return The first word, e.g. "mark" for "mark 2".
+     */
+    public static String commandWord(String input) {
+        int space = input.indexOf(' ');
+        return space < 0 ? input : input.substring(0, space);
+    }
+
     /**
      * Returns true if the input is the exit command ("bye").
      *
@@ -50,11 +62,79 @@ public final class Parser {
      * @throws NumberFormatException If the index is missing or not a valid number.
      */
     public static int parseIndexAfter(String input, String prefix) {
+        if (input.length() <= prefix.length() + 1) {
+            throw new NumberFormatException("Please provide a task number, e.g., '" + prefix + " 2'.");
+        }
         try {
             return Integer.parseInt(input.substring(prefix.length() + 1).trim());
         } catch (NumberFormatException e) {
-            throw new NumberFormatException("OOPS! That does not look like a valid number.");
+            throw new NumberFormatException("That does not look like a valid number.");
+        }
+    }
+
+    /**
+     * Parses the tasks picked by a command that accepts several at once, e.g. {@code delete 3-40},
+     * {@code mark 1,5,9} or {@code delete done}.
+     *
+     * @param input  The full user command.
+     * @param prefix The command keyword (e.g., "mark", "delete").
+     * @return The selection; {@link TaskSelection#isSingle()} tells whether it is a plain task number.
+     * @throws NumberFormatException If the selection is missing or malformed.
+     */
+    public static TaskSelection parseSelectionAfter(String input, String prefix) {
+        if (input.length() <= prefix.length() + 1 || input.substring(prefix.length() + 1).isBlank()) {
+            throw new NumberFormatException("Please provide a task number, e.g., '" + prefix + " 2'.");
+        }
+        return TaskSelection.parse(input.substring(prefix.length() + 1));
+    }
+
+    /**
+     * Parses the part of a {@code list} command that picks which tasks to show:
+     * {@code page N} (pages of {@code pageSize} tasks) or a range {@code A-B}.
+     *
+     * @param input    The full user command, e.g. {@code "list page 3"} or {@code "list 200-400"}.
+     * @param pageSize Number of tasks per page.
+     * @return The 1-based inclusive bounds {@code {from, to}}, not yet clipped to the list,
+     *         or null for a plain {@code list}.
+     * @throws NumberFormatException If the page or range is not a valid number.
+     * @throws UnsupportedOperationException If the arguments are neither a page nor a range.
+     */
+    public static int[] parseListRange(String input, int pageSize) {
+        String args = input.substring("list".length()).trim();
+        if (args.isEmpty()) {
+            return null;
+        }
+        if (args.startsWith("page ")) {
+            int page;
+            try {
+                page = Integer.parseInt(args.substring("page ".length()).trim());
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("That does not look like a valid page number.");
+            }
+            if (page < 1) {
+                throw new NumberFormatException("Pages are numbered from 1.");
+            }
+            long from = (long) (page - 1) * pageSize + 1;
+            long to = from + pageSize - 1;
+            return new int[] {(int) Math.min(from, Integer.MAX_VALUE), (int) Math.min(to, Integer.MAX_VALUE)};
+        }
+        int dash = args.indexOf('-');
+        if (dash < 1) {
+            throw new UnsupportedOperationException("Unknown command: " + input);
+        }
+        int from;
+        int to;
+        try {
+            from = Integer.parseInt(args.substring(0, dash).trim());
+            to = Integer.parseInt(args.substring(dash + 1).trim());
+        } catch (NumberFormatException e) {
+            from = 0; // reported below
+            to = 0;
+        }
+        if (from < 1 || from > to) {
+            throw new NumberFormatException("Please give a range like 'list 200-400'.");
         }
+        return new int[] {from, to};
     }
 
     /**
@@ -89,15 +169,47 @@ public final class Parser {
         if (parts.length < 2 || parts[1].trim().isEmpty()) {
             throw new IllegalArgumentException("mang.Deadline requires a date. Use yyyy-MM-dd, e.g., 2019-10-15");
         }
-        String byStr = parts[1].trim();
+        return new Deadline(desc, parseDate(parts[1]));
+    }
+
+    /**
+     * Parses a date given as yyyy-MM-dd.
+     *
+     * @param raw The date text; surrounding spaces are ignored.
+     * @return The date.
+     * @throws IllegalArgumentException If the date is not in yyyy-MM-dd form.
+     */
+    public static LocalDate parseDate(String raw) {
         try {
-            LocalDate by = LocalDate.parse(byStr); // yyyy-MM-dd
-            return new Deadline(desc, by);
+            return LocalDate.parse(raw.trim()); // yyyy-MM-dd
         } catch (DateTimeParseException pe) {
             throw new IllegalArgumentException("Invalid date format. Please use yyyy-MM-dd, e.g., 2019-10-15");
         }
     }
 
+    /**
+     * Parses the count of a {@code due next N} query; a missing count means {@code defaultCount}.
+     *
+     * @param raw          The text after {@code next}.
+     * @param defaultCount The count to use when none is given.
+     * @return A positive count.
+     * @throws NumberFormatException If the count is not a positive number.
+     */
+    public static int parseCount(String raw, int defaultCount) {
+        if (raw.isBlank()) {
+            return defaultCount;
+        }
+        try {
+            int n = Integer.parseInt(raw.trim());
+            if (n > 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new NumberFormatException("Please give a positive number, e.g., 'due next 10'.");
+    }
+
     /**
      * Parses an "event" command and returns the corresponding Event task.
      *
@@ -143,6 +255,28 @@ public final class Parser {
         return keyword;
     }
 
+    /**
+     * Parses the workspace name that follows a {@code use} or {@code switch} command.
+     * Names are case-insensitive and returned in lower case, since each one names a file.
+     *
+     * @param input The full user command, e.g. {@code "use Work"}.
+     * @param word  The command word, e.g. {@code "use"}.
+     * @return The workspace name, e.g. {@code "work"}.
+     * @throws IllegalArgumentException If the name is missing or uses other characters than letters, digits,
+     *                                  '-' and '_'.
+     */
+    public static String parseWorkspaceName(String input, String word) {
+        String name = input.substring(word.length()).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Which workspace? e.g., '" + word + " work'");
+        }
+        if (!name.matches("[A-Za-z0-9_-]{1,64}")) {
+            throw new IllegalArgumentException(
+                    "Workspace names may only use letters, digits, '-' and '_' (up to 64 of them).");
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Returns true if the input is a sort command.
      */
@@ -0,0 +1,22 @@
+package mang;
+
+/**
+ * Receives the lines of a response as a command produces them.
+ * The CLI prints each line immediately; the GUI collects them into one message.
+ */
+public interface Reply {
+    /**
+     * Emits one line of the response (without a line terminator).
+     *
+     * @param text The line to emit.
+     */
+    void line(String text);
+
+    /**
+     * Returns true if lines are shown as soon as they are emitted, so a reply may be arbitrarily long.
+     * Replies that collect their lines get long listings one page at a time instead.
+     */
+    default boolean isStreaming() {
+        return false;
+    }
+}
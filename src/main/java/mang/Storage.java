@@ -1,14 +1,24 @@
 package mang;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Handles persistence of tasks to disk and loading them on startup.
@@ -16,15 +26,84 @@ import java.util.List;
  * T | 1 | read book
  * D | 0 | return book | 2019-10-15
  * E | 1 | project meeting | Mon 2pm | 4pm
+ *
+ * <p>In journal mode every mutation is appended as one small record to a sibling
+ * {@code <file>.journal} instead of rewriting the whole file:
+ * A | T | 0 | read book   (add, followed by the serialized task)
+ * M | 3                   (mark task 3; also a selection such as 1,5,9 or 3-40 or done)
+ * U | 3                   (unmark task 3, or a selection)
+ * X | 3                   (delete task 3, or a selection)
+ * S | deadline            (sort by deadline or description)
+ * {@link #load()} replays the journal on top of the snapshot, and the journal is
+ * folded back into the snapshot (compacted) by the next {@link #save(Task[], int)}.
+ * While a journal is in use the snapshot starts with a {@code # generation N} line and the
+ * journal with {@code G | N}; a journal whose generation does not match the snapshot was
+ * already folded into it and is ignored.
+ *
+ * <p>A data file whose name ends in {@code .bin} is stored in the compact {@link BinaryTaskFormat}
+ * instead; its header always carries the generation. The journal stays in the text format above.
+ * {@link StorageConverter} migrates data files between the two formats.
+ *
+ * <p>Saves never overwrite the data file in place: the snapshot is written to a sibling
+ * {@code <file>.tmp}, flushed according to the {@link Durability} level, and then atomically
+ * renamed over the data file, so a crash leaves either the old or the new file intact.
  */
 public class Storage {
+    /** Number of journal records after which {@link #needsCompaction()} asks for a full save. */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private static final String GENERATION_HEADER = "# generation ";
+
+    /**
+     * How hard a save tries to reach stable storage before it returns.
+     */
+    public enum Durability {
+        /** Leave flushing to the operating system; the rename is still atomic. */
+        NONE,
+        /** Force the file contents to disk before it is renamed into place. */
+        FILE,
+        /** Like {@link #FILE}, and also force the directory entry created by the rename. */
+        FILE_AND_DIRECTORY
+    }
+
     private final Path file; // e.g., data/mang.txt (relative, OS-independent)
+    private final Path journal; // e.g., data/mang.txt.journal
+    private final boolean isJournaling;
+    private final boolean isBinary;
+    private boolean isLazy;
+    private Durability durability = Durability.FILE;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private volatile int journalEntries; // written by whichever thread performs the writes
+    private long generation;
+    private int skippedLines;
+    private volatile long loadNanos;
+    private volatile long lastSaveBytes;
+    private final LongAdder savedBytes = new LongAdder();
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final LongAdder appendedBytes = new LongAdder();
+    private final LatencyHistogram appendLatency = new LatencyHistogram();
 
     /**
-     * Creates a storage using the default file location {@code data/mang.txt}.
+     * Creates a storage using the default file location {@code data/mang.txt},
+     * or {@code data/mang.bin} with {@code -Dmang.format=binary}.
+     * Journal mode is enabled with {@code -Dmang.journal=true}, and the durability level is
+     * chosen with {@code -Dmang.durability=none|file|file_and_directory} (default {@code file}; any other value
+     * is reported on standard error and the default is used).
+     * {@code -Dmang.lazy=true} turns on {@linkplain #setLazyLoading(boolean) lazy loading}.
      */
     public Storage() {
-        this(Paths.get("data", "mang.txt"));
+        this(Paths.get("data", "binary".equalsIgnoreCase(System.getProperty("mang.format")) ? "mang.bin" : "mang.txt"),
+                Boolean.getBoolean("mang.journal"));
+        setLazyLoading(Boolean.getBoolean("mang.lazy"));
+        String level = System.getProperty("mang.durability");
+        if (level != null) {
+            try {
+                setDurability(Durability.valueOf(level.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown -Dmang.durability=" + level + " (expected none, file or"
+                        + " file_and_directory); using " + durability.name().toLowerCase(Locale.ROOT) + ".");
+            }
+        }
     }
 
     /**
@@ -33,13 +112,261 @@ public class Storage {
      * @param file path to the data file
      */
     public Storage(Path file) {
+        this(file, false);
+    }
+
+    /**
+     * Creates a storage that reads/writes to the given path, optionally in journal mode.
+     *
+     * @param file         path to the data file
+     * @param isJournaling whether mutations are appended to a journal instead of rewriting the file
+     */
+    public Storage(Path file, boolean isJournaling) {
         this.file = file;
+        this.journal = file.resolveSibling(file.getFileName() + ".journal");
+        this.isJournaling = isJournaling;
+        this.isBinary = isBinaryPath(file);
+    }
+
+    /**
+     * Returns a storage for the workspace {@code name}: a data file of the same format in the
+     * {@linkplain #getWorkspaceDirectory() workspace directory}, e.g. {@code data/workspaces/work.txt},
+     * with the same journaling, durability, lazy loading and compaction settings as this one.
+     *
+     * @param name workspace name, as returned by {@link Parser#parseWorkspaceName(String, String)}
+     * @return the storage of that workspace; its file is only created when it is first loaded
+     */
+    public Storage forWorkspace(String name) {
+        Storage workspace = new Storage(getWorkspaceDirectory().resolve(name + workspaceSuffix()), isJournaling);
+        workspace.isLazy = isLazy;
+        workspace.durability = durability;
+        workspace.compactionThreshold = compactionThreshold;
+        return workspace;
+    }
+
+    /**
+     * Returns the directory holding the workspace data files: {@code workspaces} next to this data file.
+     */
+    public Path getWorkspaceDirectory() {
+        return file.resolveSibling("workspaces");
+    }
+
+    /**
+     * Returns the names of the workspaces that have a data file, sorted.
+     *
+     * @throws StorageException if the workspace directory cannot be read
+     */
+    public List<String> listWorkspaces() {
+        Path dir = getWorkspaceDirectory();
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return names;
+        }
+        String suffix = workspaceSuffix();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + suffix)) {
+            for (Path f : files) {
+                String fileName = f.getFileName().toString();
+                names.add(fileName.substring(0, fileName.length() - suffix.length()));
+            }
+        } catch (IOException e) {
+            throw new StorageException("Unable to list workspaces in " + dir + ": " + e.getMessage(), e);
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private String workspaceSuffix() {
+        return isBinary ? ".bin" : ".txt";
+    }
+
+    /**
+     * Returns true if {@code path} names a file in the binary format, i.e. it ends in {@code .bin}.
+     */
+    public static boolean isBinaryPath(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".bin");
+    }
+
+    /**
+     * Returns whether mutations should be recorded through the {@code append*} methods.
+     */
+    public boolean isJournaling() {
+        return isJournaling;
+    }
+
+    /**
+     * Sets how much flushing a save (or journal append) performs before it returns.
+     *
+     * @param durability the durability level (must not be null)
+     */
+    public void setDurability(Durability durability) {
+        if (durability == null) {
+            throw new IllegalArgumentException("Durability cannot be null.");
+        }
+        this.durability = durability;
+    }
+
+    /**
+     * Returns the current durability level.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Sets whether {@link #load()} memory-maps a text data file and builds each task only when it is first
+     * accessed, instead of building every task up front. Startup time and heap use then depend on the tasks
+     * that are actually touched. Anything that needs every task (a full save, {@code find}, {@code sort})
+     * still builds them all, so lazy loading pays off most together with journal mode.
+     * Binary data files are always loaded eagerly.
+     *
+     * @param isLazy whether to load lazily
+     */
+    public void setLazyLoading(boolean isLazy) {
+        this.isLazy = isLazy;
+    }
+
+    /**
+     * Returns how many non-blank lines of the data file the last {@link #load()} could not parse and skipped.
+     * For a binary data file this is the number of tasks lost to truncation or corruption.
+     */
+    public int getSkippedLineCount() {
+        return skippedLines;
+    }
+
+    /**
+     * Returns how long the last {@link #load()} took in nanoseconds, or 0 if nothing was loaded yet.
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * Returns the durations of the successful saves so far.
+     */
+    public LatencyHistogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    /**
+     * Returns the number of bytes the successful saves so far have written.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Returns the number of bytes the last successful save wrote, or 0 if nothing was saved yet.
+     */
+    public long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    /**
+     * Returns the durations of the successful journal appends so far.
+     */
+    public LatencyHistogram getAppendLatency() {
+        return appendLatency;
+    }
+
+    /**
+     * Returns the number of bytes the successful journal appends so far have written.
+     */
+    public long getAppendedBytes() {
+        return appendedBytes.sum();
+    }
+
+    /**
+     * Sets how many journal records may accumulate before {@link #needsCompaction()} returns true.
+     *
+     * @param threshold maximum number of journal records (must be positive)
+     */
+    public void setCompactionThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Compaction threshold must be positive.");
+        }
+        this.compactionThreshold = threshold;
+    }
+
+    /**
+     * Returns true once the journal has grown past the compaction threshold, i.e. the
+     * caller should persist a full snapshot with {@link #save(Task[], int)} instead.
+     */
+    public boolean needsCompaction() {
+        return journalEntries >= compactionThreshold;
+    }
+
+    /**
+     * Loads all tasks from disk (snapshot plus journal) into a new {@link TaskList}.
+     * The list is pre-sized from the file size, and never truncated.
+     * Missing file: created and returns an empty list (first run).
+     * Permission/other I/O errors: throws {@link StorageException}.
+     *
+     * @return the loaded tasks
+     */
+    public TaskList load() {
+        long start = System.nanoTime();
+        try {
+            return loadTasks();
+        } finally {
+            loadNanos = System.nanoTime() - start;
+        }
+    }
+
+    private TaskList loadTasks() {
+        try {
+            prepareAndValidateDataFile(); // extract: parent dir, file exists, readable, not dir
+
+            generation = 0;
+            skippedLines = 0;
+            if (isBinary) {
+                TaskList tasks = loadBinary();
+                replayJournal(tasks);
+                return tasks;
+            }
+            if (isLazy) {
+                MappedTaskFile mapped = MappedTaskFile.open(file);
+                if (mapped != null) {
+                    generation = mapped.getGeneration();
+                    skippedLines = mapped.getSkippedLineCount();
+                    TaskList tasks = new TaskList(mapped);
+                    replayJournal(tasks);
+                    return tasks;
+                }
+                // too large to map in one piece → load eagerly
+            }
+
+            TaskList tasks = new TaskList(estimateTaskCount(Files.size(file)));
+            try (TaskFileReader in = openReader(file)) {
+                while (in.nextLine()) {
+                    if (in.lineStartsWith(GENERATION_HEADER)) {
+                        generation = parseGeneration(in.lineFrom(GENERATION_HEADER.length()));
+                        continue;
+                    }
+                    Task t = parseTask(in, 0); // extract: parse one line into Task (or null)
+                    if (t == null) {
+                        if (!in.isBlank()) {
+                            skippedLines++;
+                        }
+                        continue; // skip blank/corrupted lines
+                    }
+                    tasks.add(t);
+                }
+            }
+            replayJournal(tasks);
+            return tasks;
+
+        } catch (IOException e) {
+            throw new StorageException("Unable to load tasks from " + file + ": " + e.getMessage(), e);
+        } catch (SecurityException se) {
+            throw new StorageException(
+                    "Security manager prevented file access for " + file + ": " + se.getMessage(), se);
+        }
     }
 
     /**
      * Loads tasks from disk into {@code dest} and returns the number loaded.
      * Missing file: created and returns 0 (first run).
-     * Permission/other I/O errors: throws {@link StorageException}.
+     * Permission/other I/O errors, or more tasks than {@code dest} can hold: throws {@link StorageException}.
      *
      * @param dest destination array (must not be null)
      * @return number of tasks loaded
@@ -48,29 +375,233 @@ public class Storage {
         if (dest == null) {
             throw new IllegalArgumentException("Destination array cannot be null.");
         }
+        TaskList tasks = load();
+        if (tasks.size() > dest.length) {
+            throw new StorageException(file + " holds " + tasks.size()
+                    + " tasks, but only " + dest.length + " fit in the destination array.");
+        }
+        System.arraycopy(tasks.backingArray(), 0, dest, 0, tasks.size());
+        return tasks.size();
+    }
+
+    /**
+     * Reads the whole binary data file into a buffer and decodes it. An empty file is an empty list.
+     */
+    private TaskList loadBinary() throws IOException {
+        ByteBuffer content;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new TaskList(); // first run
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new StorageException("Data file is too large: " + file);
+            }
+            content = ByteBuffer.allocate((int) size);
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+            content.flip();
+        }
+        TaskList tasks = new TaskList(estimateTaskCount(content.remaining()));
         try {
-            prepareAndValidateDataFile(); // extract: parent dir, file exists, readable, not dir
+            BinaryTaskFormat.Decoded decoded = BinaryTaskFormat.decode(content, tasks);
+            generation = decoded.generation;
+            skippedLines = decoded.skipped;
+        } catch (StorageException e) {
+            throw new StorageException("Unable to load tasks from " + file + ": " + e.getMessage(), e);
+        }
+        return tasks;
+    }
 
-            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
-            int count = 0;
+    private static TaskFileReader openReader(Path path) throws IOException {
+        return new TaskFileReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
 
-            for (String raw : lines) {
-                Task t = parseLineToTask(raw); // extract: parse one line into Task (or null)
-                if (t == null) {
-                    continue; // skip blank/corrupted lines
+    /**
+     * Guesses the number of tasks from the file size (about 32 bytes per line), so the list rarely has to grow.
+     */
+    private static int estimateTaskCount(long bytes) {
+        return (int) Math.min(bytes / 32 + 16, 1 << 26);
+    }
+
+    private static long parseGeneration(String raw) {
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return -1; // unreadable header → never matches a journal
+        }
+    }
+
+    /**
+     * Applies every journal record on top of the loaded snapshot.
+     * Records that cannot be applied (corrupted, or pointing at a missing task) are skipped,
+     * and a journal from another generation (already folded into the snapshot) is ignored.
+     */
+    private void replayJournal(TaskList tasks) throws IOException {
+        journalEntries = 0;
+        if (Files.notExists(journal)) {
+            return;
+        }
+        try (TaskFileReader in = openReader(journal)) {
+            boolean isFirst = true;
+            while (in.nextLine()) {
+                if (in.isBlank()) {
+                    continue;
                 }
-                if (count >= dest.length) {
-                    break; // capacity reached
+                if (isFirst) {
+                    isFirst = false;
+                    // journals written before generations existed have no header and belong to generation 0
+                    long journalGeneration = in.fieldIs(0, 'G') && in.fieldCount() > 1
+                            ? parseGeneration(in.field(1)) : 0;
+                    if (journalGeneration != generation) {
+                        return; // stale: the crash happened after the snapshot was replaced
+                    }
                 }
-                dest[count++] = t;
+                if (in.fieldIs(0, 'G')) {
+                    continue;
+                }
+                journalEntries++;
+                try {
+                    applyRecord(tasks, in);
+                } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                    // corrupted or stale record → skip
+                }
+            }
+        }
+    }
+
+    private void applyRecord(TaskList tasks, TaskFileReader in) {
+        if (in.fieldLength(0) != 1) {
+            return; // unknown → skip
+        }
+        switch (in.fieldChar(0, 0)) {
+        case 'A':
+            Task t = parseTask(in, 1);
+            if (t != null) {
+                tasks.add(t);
+            }
+            break;
+        case 'M':
+            TaskSelection marked = TaskSelection.parse(in.field(1));
+            if (marked.isSingle()) {
+                tasks.mark(marked.single());
+            } else {
+                tasks.markAll(marked.resolve(tasks));
+            }
+            break;
+        case 'U':
+            TaskSelection unmarked = TaskSelection.parse(in.field(1));
+            if (unmarked.isSingle()) {
+                tasks.unmark(unmarked.single());
+            } else {
+                tasks.unmarkAll(unmarked.resolve(tasks));
+            }
+            break;
+        case 'X':
+            TaskSelection deleted = TaskSelection.parse(in.field(1));
+            if (deleted.isSingle()) {
+                tasks.delete(deleted.single());
+            } else {
+                tasks.deleteAll(deleted.resolve(tasks));
+            }
+            break;
+        case 'S':
+            if ("deadline".equalsIgnoreCase(in.field(1))) {
+                tasks.sortByDeadline();
+            } else {
+                tasks.sortByDescription();
             }
-            return count;
+            break;
+        default:
+            break; // unknown → skip
+        }
+    }
+
+    /**
+     * Appends an "add" record for {@code t} to the journal.
+     */
+    public void appendAdd(Task t) {
+        appendRecord("A | " + serialize(t));
+    }
+
+    /**
+     * Appends a "mark" record for the task at the given 1-based index to the journal.
+     */
+    public void appendMark(int oneBasedIndex) {
+        appendRecord("M | " + oneBasedIndex);
+    }
+
+    /**
+     * Appends an "unmark" record for the task at the given 1-based index to the journal.
+     */
+    public void appendUnmark(int oneBasedIndex) {
+        appendRecord("U | " + oneBasedIndex);
+    }
+
+    /**
+     * Appends a "delete" record for the task at the given 1-based index to the journal.
+     */
+    public void appendDelete(int oneBasedIndex) {
+        appendRecord("X | " + oneBasedIndex);
+    }
+
+    /**
+     * Appends a single "mark" record covering every task picked by {@code selection}.
+     */
+    public void appendMark(TaskSelection selection) {
+        appendRecord("M | " + selection);
+    }
+
+    /**
+     * Appends a single "unmark" record covering every task picked by {@code selection}.
+     */
+    public void appendUnmark(TaskSelection selection) {
+        appendRecord("U | " + selection);
+    }
+
+    /**
+     * Appends a single "delete" record covering every task picked by {@code selection}.
+     * The selection is resolved again on replay, against the same list it was resolved against now.
+     */
+    public void appendDelete(TaskSelection selection) {
+        appendRecord("X | " + selection);
+    }
+
+    /**
+     * Appends a "sort" record ({@code deadline} or {@code description}) to the journal.
+     */
+    public void appendSort(String sortType) {
+        appendRecord("S | " + sortType);
+    }
 
+    private void appendRecord(String record) {
+        long start = System.nanoTime();
+        try {
+            ensureParentDir();
+            boolean isNew = Files.notExists(journal);
+            String text = record + System.lineSeparator();
+            if (isNew) {
+                text = "G | " + generation + System.lineSeparator() + text;
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(journal,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+                writeFully(channel, ByteBuffer.wrap(bytes));
+                if (durability != Durability.NONE) {
+                    channel.force(true);
+                }
+            }
+            if (isNew && durability == Durability.FILE_AND_DIRECTORY) {
+                syncParentDir(journal);
+            }
+            journalEntries++;
+            appendLatency.record(System.nanoTime() - start);
+            appendedBytes.add(bytes.length);
         } catch (IOException e) {
-            throw new StorageException("Unable to load tasks from " + file + ": " + e.getMessage(), e);
+            throw new StorageException("Unable to append to " + journal + ": " + e.getMessage(), e);
         } catch (SecurityException se) {
-            throw new StorageException(
-                    "Security manager prevented file access for " + file + ": " + se.getMessage(), se);
+            throw new StorageException("Security manager prevented writing to " + journal + ": " + se.getMessage(), se);
         }
     }
 
@@ -93,44 +624,35 @@ public class Storage {
     }
 
     /**
-     * Parses one persisted line into a Task. Returns null for blank/corrupted lines.
+     * Parses the fields of the current line, starting at field {@code first}, into a Task.
+     * Returns null for blank/corrupted lines.
      * This method keeps all persistence-specific parsing in one place.
      */
-    private Task parseLineToTask(String raw) {
-        if (raw == null || raw.trim().isEmpty()) {
-            return null;
-        }
-        String[] parts = raw.split("\\s*\\|\\s*"); // tolerate spaces around '|'
-        if (parts.length < 3) {
+    static Task parseTask(TaskFileReader in, int first) {
+        if (in.isBlank() || in.fieldCount() - first < 3) {
             return null; // corrupted → skip
         }
-
-        String type = parts[0];
-        boolean done = "1".equals(parts[1]);
-        String desc = parts[2];
+        int fields = in.fieldCount() - first;
+        boolean done = in.fieldIs(first + 1, '1');
+        String desc = in.field(first + 2);
 
         Task t;
-        switch (type) {
-        case "T":
+        if (in.fieldIs(first, 'T')) {
             t = new Todo(desc);
-            break;
-        case "D":
-            if (parts.length < 4) {
+        } else if (in.fieldIs(first, 'D')) {
+            if (fields < 4) {
                 return null; // corrupted → skip
             }
-            try {
-                LocalDate by = LocalDate.parse(parts[3]);
-                t = new Deadline(desc, by);
-            } catch (DateTimeParseException e) {
+            LocalDate by = parseDate(in, first + 3);
+            if (by == null) {
                 return null; // malformed date → skip the line
             }
-            break;
-        case "E":
-            String from = parts.length >= 4 ? parts[3] : "unspecified";
-            String to = parts.length >= 5 ? parts[4] : "unspecified";
+            t = new Deadline(desc, by);
+        } else if (in.fieldIs(first, 'E')) {
+            String from = fields >= 4 ? in.field(first + 3) : "unspecified";
+            String to = fields >= 5 ? in.field(first + 4) : "unspecified";
             t = new Event(desc, from, to);
-            break;
-        default:
+        } else {
             return null; // unknown → skip
         }
 
@@ -141,13 +663,61 @@ public class Storage {
     }
 
     /**
-     * Saves the first {@code count} tasks to disk (overwrites the data file).
+     * Parses an ISO {@code yyyy-MM-dd} date field, reading the digits in place for the common case.
+     * Returns null if the field is not a valid date.
+     */
+    private static LocalDate parseDate(TaskFileReader in, int i) {
+        try {
+            if (in.fieldLength(i) == 10 && in.fieldChar(i, 4) == '-' && in.fieldChar(i, 7) == '-') {
+                int year = digits(in, i, 0, 4);
+                int month = digits(in, i, 5, 2);
+                int day = digits(in, i, 8, 2);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    return LocalDate.of(year, month, day);
+                }
+            }
+            return LocalDate.parse(in.field(i));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the decimal value of {@code len} characters of field {@code i}, or -1 if any is not a digit.
+     */
+    private static int digits(TaskFileReader in, int i, int from, int len) {
+        int value = 0;
+        for (int j = from; j < from + len; j++) {
+            char c = in.fieldChar(i, j);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Saves the first {@code count} tasks to disk, atomically replacing the data file.
+     * Any journal is discarded afterwards, since the new snapshot already contains it.
      * I/O errors are reported via {@link StorageException}.
      *
      * @param tasks task array
      * @param count number of tasks to persist
      */
     public void save(Task[] tasks, int count) {
+        save(TaskSnapshot.of(tasks, count));
+    }
+
+    /**
+     * Saves a snapshot of the task list to disk, atomically replacing the data file.
+     * Any journal is discarded afterwards, since the new snapshot already contains it.
+     * I/O errors are reported via {@link StorageException}.
+     *
+     * @param tasks the tasks to persist, e.g. from {@link TaskList#snapshot()}
+     */
+    public void save(TaskSnapshot tasks) {
+        long start = System.nanoTime();
         try {
             ensureParentDir();
 
@@ -158,22 +728,31 @@ public class Storage {
                 throw new StorageException("Data file is not writable: " + file);
             }
 
+            boolean hasJournal = isJournaling || Files.exists(journal);
+            long newGeneration = generation + 1;
+            if (isBinary) {
+                long written = writeAtomically(BinaryTaskFormat.encode(tasks, newGeneration));
+                generation = newGeneration;
+                Files.deleteIfExists(journal);
+                journalEntries = 0;
+                recordSave(written, start);
+                return;
+            }
             StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < count; i++) {
-                Task t = tasks[i];
-                if (t == null) {
-                    continue;
-                }
+            if (hasJournal) {
+                sb.append(GENERATION_HEADER).append(newGeneration).append(System.lineSeparator());
+            }
+            for (Task t : tasks) {
                 sb.append(serialize(t)).append(System.lineSeparator());
             }
 
-            Files.writeString(
-                    file,
-                    sb.toString(),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING,
-                    StandardOpenOption.WRITE
-            );
+            long written = writeAtomically(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+            if (hasJournal) {
+                generation = newGeneration;
+            }
+            Files.deleteIfExists(journal);
+            journalEntries = 0;
+            recordSave(written, start);
         } catch (IOException e) {
             throw new StorageException("Unable to save tasks to " + file + ": " + e.getMessage(), e);
         } catch (SecurityException se) {
@@ -181,6 +760,57 @@ public class Storage {
         }
     }
 
+    private void recordSave(long bytes, long startNanos) {
+        saveLatency.record(System.nanoTime() - startNanos);
+        savedBytes.add(bytes);
+        lastSaveBytes = bytes;
+    }
+
+    /**
+     * Writes {@code content} to a sibling temp file, flushes it as the durability level requires,
+     * and renames it over the data file.
+     *
+     * @return the number of bytes written
+     */
+    private long writeAtomically(ByteBuffer content) throws IOException {
+        long bytes = content.remaining();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, content);
+            if (durability != Durability.NONE) {
+                channel.force(true);
+            }
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING); // best effort on exotic file systems
+        }
+        if (durability == Durability.FILE_AND_DIRECTORY) {
+            syncParentDir(file);
+        }
+        return bytes;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Forces the directory containing {@code path}, so a newly created or renamed entry survives a crash.
+     */
+    private static void syncParentDir(Path path) {
+        Path parent = path.toAbsolutePath().getParent();
+        try (FileChannel dir = FileChannel.open(parent, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // some platforms (e.g. Windows) cannot open directories; the file itself is already forced
+        }
+    }
+
     private void ensureParentDir() throws IOException {
         Path parent = file.getParent();
         if (parent != null && !Files.exists(parent)) {
@@ -0,0 +1,57 @@
+package mang;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Migrates a data file between the text format and the binary format, e.g.
+ * {@code java mang.StorageConverter data/mang.txt data/mang.bin}. The format of each side follows
+ * its file extension (see {@link Storage#isBinaryPath(Path)}), so the same command converts back.
+ * A pending journal next to the source is folded into the converted file.
+ */
+public class StorageConverter {
+
+    /**
+     * Converts {@code from} into {@code to}. The destination must not exist yet.
+     *
+     * @param from existing data file to read
+     * @param to   data file to create
+     * @return the number of tasks written
+     * @throws StorageException if the source cannot be read or the destination cannot be written
+     */
+    public static int convert(Path from, Path to) {
+        if (Files.notExists(from)) {
+            throw new StorageException("No data file to convert at " + from);
+        }
+        if (Files.exists(to)) {
+            throw new StorageException("Refusing to overwrite existing file " + to);
+        }
+        if (Storage.isBinaryPath(from) == Storage.isBinaryPath(to)) {
+            throw new StorageException("Both files use the same format; use a .txt and a .bin file.");
+        }
+        TaskList tasks = new Storage(from).load();
+        new Storage(to).save(tasks.snapshot());
+        return tasks.size();
+    }
+
+    /**
+     * Command-line entry point: {@code StorageConverter <from> <to>}.
+     *
+     * @param args the source and destination paths
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java mang.StorageConverter <from> <to>");
+            System.err.println("Files ending in .bin use the binary format; anything else uses the text format.");
+            System.exit(2);
+        }
+        try {
+            int count = convert(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println("Converted " + count + " tasks from " + args[0] + " to " + args[1] + ".");
+        } catch (StorageException e) {
+            System.err.println("Conversion failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
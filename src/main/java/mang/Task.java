@@ -5,10 +5,14 @@ import java.util.Objects;
 /**
  * Represents a generic task with a description and a completion status
  * (done or not done).
+ * The text shown for a task is rendered once and cached until its status changes, so listing
+ * many tasks does not format them again every time. Subclasses add their details by overriding
+ * {@link #render()} rather than {@link #toString()}.
  */
-public class Task {
+public class Task implements Cloneable {
     private final String description;
     private boolean isDone;
+    private volatile String rendered; // cached render(); null after a status change
 
     /**
      * Creates a task with the given {@code description}.
@@ -32,11 +36,30 @@ public class Task {
         return isDone;
     }
 
+    /**
+     * Returns a copy of this task that is done or not done, leaving this task as it is.
+     * A {@link TaskList} marks tasks this way, so snapshots taken earlier keep the old status.
+     *
+     * @param isDone The status of the copy.
+     * @return The copy.
+     */
+    public Task withDone(boolean isDone) {
+        try {
+            Task copy = (Task) clone(); // subclasses only add immutable fields
+            copy.isDone = isDone;
+            copy.rendered = null;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     /**
      * Marks this task as done.
      */
     public void markDone() {
         this.isDone = true;
+        this.rendered = null;
     }
 
     /**
@@ -44,6 +67,7 @@ public class Task {
      */
     public void markUndone() {
         this.isDone = false;
+        this.rendered = null;
     }
 
     /**
@@ -53,9 +77,25 @@ public class Task {
         return isDone ? "[X]" : "[ ]";
     }
 
+    /**
+     * Builds the text shown for this task, e.g. {@code [X] read book}.
+     * Called once per status change; subclasses prepend or append their own parts.
+     */
+    protected String render() {
+        return statusIcon() + " " + description;
+    }
+
+    /**
+     * Returns the cached rendering, building it on first use after a status change.
+     */
     @Override
     public String toString() {
-        return statusIcon() + " " + description;
+        String r = rendered;
+        if (r == null) {
+            r = render();
+            rendered = r;
+        }
+        return r;
     }
 
     /**
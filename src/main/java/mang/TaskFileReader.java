@@ -0,0 +1,254 @@
+package mang;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streams a pipe-delimited task file line by line, splitting each line into fields in a single pass.
+ * Characters are read in large chunks into a reusable buffer; a field only becomes a String when asked for.
+ *
+ * <p>Splitting matches {@code line.split("\\s*\\|\\s*")}: whitespace next to a {@code |} is dropped,
+ * whitespace at the start and end of the line is kept, and trailing empty fields are removed.
+ * Lines end at {@code \n}, {@code \r} or {@code \r\n}, as with {@link java.io.BufferedReader#readLine()}.
+ */
+public class TaskFileReader implements Closeable {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 16;
+
+    private final Reader in;
+    private char[] buf;
+    private int pos; // start of the next line
+    private int limit; // end of valid data in buf
+    private boolean isEof;
+    private boolean skipLf; // last line ended with '\r'; a following '\n' belongs to it
+
+    private int lineStart;
+    private int lineEnd;
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private int fieldCount;
+    private boolean hasDroppedFields; // non-empty fields beyond MAX_FIELDS were ignored
+
+    /**
+     * Creates a reader over the given character stream.
+     *
+     * @param in the source; closed by {@link #close()}
+     */
+    public TaskFileReader(Reader in) {
+        this(in, CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a reader over the given character stream that reads {@code chunkSize} characters at a time,
+     * e.g. a small chunk for parsing a single line.
+     *
+     * @param in        the source; closed by {@link #close()}
+     * @param chunkSize initial buffer size in characters (must be positive)
+     */
+    public TaskFileReader(Reader in, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.in = in;
+        this.buf = new char[chunkSize];
+    }
+
+    /**
+     * Advances to the next line and splits it into fields.
+     *
+     * @return false once the end of the stream is reached
+     */
+    public boolean nextLine() throws IOException {
+        int scan = pos;
+        while (true) {
+            if (skipLf) {
+                if (scan >= limit && !fill()) {
+                    return false;
+                }
+                scan = pos;
+                if (buf[pos] == '\n') {
+                    pos++;
+                    scan++;
+                }
+                skipLf = false;
+            }
+            for (; scan < limit; scan++) {
+                char c = buf[scan];
+                if (c == '\n' || c == '\r') {
+                    lineStart = pos;
+                    lineEnd = scan;
+                    pos = scan + 1;
+                    skipLf = c == '\r';
+                    split();
+                    return true;
+                }
+            }
+            int scanned = scan - pos;
+            if (!fill()) {
+                if (pos >= limit) {
+                    return false;
+                }
+                lineStart = pos; // last line without a terminator
+                lineEnd = limit;
+                pos = limit;
+                split();
+                return true;
+            }
+            scan = pos + scanned;
+        }
+    }
+
+    /**
+     * Moves the unread part of the buffer to the front (growing it for very long lines) and reads more.
+     *
+     * @return false if the stream had no more characters
+     */
+    private boolean fill() throws IOException {
+        if (isEof) {
+            return false;
+        }
+        int unread = limit - pos;
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, unread);
+        } else if (unread == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        pos = 0;
+        limit = unread;
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            isEof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    private void split() {
+        fieldCount = 0;
+        hasDroppedFields = false;
+        int start = lineStart;
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (buf[i] != '|') {
+                continue;
+            }
+            addField(start, i);
+            start = i + 1;
+            while (start < lineEnd && isSpace(buf[start])) {
+                start++;
+            }
+            i = start - 1;
+        }
+        addField(start, lineEnd);
+        while (!hasDroppedFields && fieldCount > 0 && fieldStart[fieldCount - 1] == fieldEnd[fieldCount - 1]) {
+            fieldCount--; // drop trailing empty fields, like String.split
+        }
+    }
+
+    private void addField(int start, int pipe) {
+        if (fieldCount == MAX_FIELDS) {
+            hasDroppedFields |= start < pipe; // more fields than any record uses; the rest are ignored
+            return;
+        }
+        int end = pipe;
+        if (pipe < lineEnd) {
+            while (end > start && isSpace(buf[end - 1])) {
+                end--;
+            }
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Matches the regex {@code \s} class.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns true if the current line is empty or only whitespace, as {@code line.trim().isEmpty()}.
+     */
+    public boolean isBlank() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (buf[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the current line starts with {@code prefix}.
+     */
+    public boolean lineStartsWith(String prefix) {
+        if (lineEnd - lineStart < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf[lineStart + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the current line from character {@code offset} on.
+     */
+    public String lineFrom(int offset) {
+        return new String(buf, lineStart + offset, lineEnd - lineStart - offset);
+    }
+
+    /**
+     * Returns the number of fields on the current line.
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns true if field {@code i} consists of exactly the character {@code c}.
+     */
+    public boolean fieldIs(int i, char c) {
+        return i < fieldCount && fieldEnd[i] - fieldStart[i] == 1 && buf[fieldStart[i]] == c;
+    }
+
+    /**
+     * Returns the length of field {@code i}.
+     */
+    public int fieldLength(int i) {
+        checkField(i);
+        return fieldEnd[i] - fieldStart[i];
+    }
+
+    /**
+     * Returns character {@code j} of field {@code i}.
+     */
+    public char fieldChar(int i, int j) {
+        return buf[fieldStart[i] + j];
+    }
+
+    /**
+     * Returns field {@code i} as a String.
+     */
+    public String field(int i) {
+        checkField(i);
+        return new String(buf, fieldStart[i], fieldEnd[i] - fieldStart[i]);
+    }
+
+    private void checkField(int i) {
+        if (i < 0 || i >= fieldCount) {
+            throw new IndexOutOfBoundsException("Line has no field " + i);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
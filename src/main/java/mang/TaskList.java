@@ -1,34 +1,96 @@
 package mang;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 
 /**
  * Holds and mutates the list of tasks.
+ * A {@link KeywordIndex} over the descriptions is built by the first {@link #find(String)}
+ * (so loading stays cheap) and kept up to date by every mutation after that.
+ *
+ * <p>Tasks live in slots of a growable array. Deleting a task only retires its slot, and a
+ * {@link LiveSlots} tree maps list positions to slots in O(log n) while retired slots exist.
+ * Once retired slots outnumber live ones the array is compacted in one pass, so deletes are
+ * O(log n) amortized wherever they happen, and lists without deletions keep O(1) positional access.
+ *
+ * <p>Date queries ({@link #nextDue(int)}, {@link #dueBefore(LocalDate)}, {@link #dueBetween},
+ * {@link #happeningOn(LocalDate)}) are answered from a {@link DeadlineIndex} and an {@link EventIndex},
+ * which are likewise built on first use and then maintained by add, delete, mark and unmark,
+ * so the list never has to be re-sorted for them.
+ *
+ * <p>A list created over a {@link MappedTaskFile} starts out with empty slots and builds each task
+ * the first time it is accessed; operations that need every task build the rest first.
+ *
+ * <p>{@link #snapshot()} is O(1): the slots are stored in shared chunks ({@link TaskSlots}) that are copied only
+ * when written after a snapshot, and marking replaces a task with a marked copy instead of changing it.
+ * Listing and saving therefore read an immutable view while the list keeps changing.
  */
 public class TaskList {
-    private final Task[] tasks;
-    private int count;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int BUILT = -1; // lazyRecords entry of a slot whose task never came from lazySource
+
+    private TaskSlots tasks; // by slot
+    private KeywordIndex.Entry[] entries; // entries[s] indexes slot s; null until the index is built
+    private KeywordIndex keywordIndex;
+    private DeadlineIndex deadlineIndex; // null until the first date query
+    private EventIndex eventIndex; // built and dropped together with deadlineIndex
+    private long nextPosition;
+    private int count; // live tasks
+    private int slots; // slots in use, live or retired
+    private final BitSet retired = new BitSet(); // deleted slots not yet compacted away
+    private LiveSlots liveSlots; // null while no slot is retired; then slot == position
+    private MappedTaskFile lazySource; // builds the tasks still missing from tasks; null once all are built
+    private int[] lazyRecords; // record in lazySource of each slot; null while slot s is record s
+    private int unbuilt; // live slots still empty while lazySource is set
 
     /**
-     * Creates an empty task list with a fixed capacity of 100 tasks.
+     * Creates an empty task list that grows as tasks are added.
      */
     public TaskList() {
-        this.tasks = new Task[100];
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty task list with room for {@code initialCapacity} tasks before it has to grow.
+     *
+     * @param initialCapacity Expected number of tasks.
+     */
+    public TaskList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative.");
+        }
+        this.tasks = new TaskSlots(initialCapacity);
         this.count = 0;
     }
 
     /**
-     * Creates a TaskList that wraps an existing array of tasks and its count.
+     * Creates a TaskList holding the first {@code count} tasks of an existing array.
+     * The tasks are copied into the list, so the array may be reused afterwards.
      *
      * @param initial The initial array of tasks.
      * @param count   The number of tasks already in the array.
      */
     public TaskList(Task[] initial, int count) {
-        this.tasks = initial;
+        this.tasks = new TaskSlots(initial, count, count + DEFAULT_CAPACITY);
         this.count = count;
+        this.slots = count;
+    }
+
+    /**
+     * Creates a TaskList over the task lines of a mapped file. No task is built until it is accessed.
+     *
+     * @param source The indexed data file.
+     */
+    public TaskList(MappedTaskFile source) {
+        this(source.size() + DEFAULT_CAPACITY);
+        this.count = source.size();
+        this.slots = count;
+        this.unbuilt = count;
+        this.lazySource = count > 0 ? source : null;
     }
 
     /**
@@ -45,21 +107,85 @@ public class TaskList {
      * @return The task at the given position.
      */
     public Task get(int zeroBasedIndex) {
-        return tasks[zeroBasedIndex];
+        return at(slotOf(zeroBasedIndex));
+    }
+
+    /**
+     * Returns the slot holding the task at the given zero-based position.
+     */
+    private int slotOf(int zeroBasedIndex) {
+        return liveSlots == null ? zeroBasedIndex : liveSlots.select(zeroBasedIndex);
+    }
+
+    /**
+     * Returns the task in slot {@code s}, building it from the mapped file on first access.
+     */
+    private Task at(int s) {
+        Task t = tasks.get(s);
+        if (t == null && lazySource != null && s < slots) {
+            t = lazySource.task(lazyRecords == null ? s : lazyRecords[s]);
+            tasks.set(s, t);
+            if (--unbuilt == 0) {
+                dropLazySource();
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Builds every task that has not been accessed yet.
+     */
+    private void buildAll() {
+        for (int s = 0; lazySource != null && s < slots; s++) {
+            if (!retired.get(s)) {
+                at(s);
+            }
+        }
+    }
+
+    private void dropLazySource() {
+        lazySource = null; // lets the mapping be garbage collected
+        lazyRecords = null;
+        unbuilt = 0;
     }
 
     /**
      * Adds a task; returns the added task.
+     * The backing array doubles when full, so appends are amortized O(1).
      */
     public Task add(Task t) {
-        if (count >= tasks.length) {
-            throw new IllegalStateException("Sorry, I can only store up to " + tasks.length + " items.");
+        if (slots >= tasks.capacity()) {
+            grow(slots + 1);
+        }
+        tasks.set(slots, t);
+        if (entries != null) {
+            entries[slots] = keywordIndex.add(t, nextPosition++);
+        }
+        if (liveSlots != null) {
+            liveSlots.update(slots, 1);
         }
-        tasks[count] = t;
+        indexDates(t);
+        slots++;
         count++;
         return t;
     }
 
+    private void grow(int minCapacity) {
+        tasks.ensureCapacity(minCapacity);
+        int newCapacity = tasks.capacity();
+        if (entries != null) {
+            entries = Arrays.copyOf(entries, newCapacity);
+        }
+        if (liveSlots != null) {
+            liveSlots = new LiveSlots(newCapacity, slots, retired);
+        }
+        if (lazyRecords != null) {
+            int oldCapacity = lazyRecords.length;
+            lazyRecords = Arrays.copyOf(lazyRecords, newCapacity);
+            Arrays.fill(lazyRecords, oldCapacity, newCapacity, BUILT);
+        }
+    }
+
     /**
      * Marks the task at the given 1-based index as done.
      *
@@ -73,10 +199,10 @@ public class TaskList {
         int i = oneBasedIndex - 1;
         validateIndex(oneBasedIndex);
 
+        Task t = setDone(slotOf(i), true);
         // The task at the index must not be null
-        assert tasks[i] != null : "Task at index must not be null";
-        tasks[i].markDone();
-        return tasks[i];
+        assert t != null : "Task at index must not be null";
+        return t;
     }
 
     /**
@@ -92,38 +218,242 @@ public class TaskList {
         int i = oneBasedIndex - 1;
         validateIndex(oneBasedIndex);
 
+        Task t = setDone(slotOf(i), false);
         // The task at the index must not be null
-        assert tasks[i] != null : "Task at index must not be null";
-        tasks[i].markUndone();
-        return tasks[i];
+        assert t != null : "Task at index must not be null";
+        return t;
+    }
+
+    /**
+     * Replaces the task in slot {@code s} with a copy that is done or not done, and updates the indexes.
+     * The old task is left as it was, so snapshots that hold it keep showing its old status.
+     *
+     * @return The task now in the slot.
+     */
+    private Task setDone(int s, boolean isDone) {
+        Task old = at(s);
+        if (old.isDone() == isDone) {
+            return old;
+        }
+        Task updated = old.withDone(isDone);
+        tasks.set(s, updated);
+        if (entries != null) {
+            entries[s].task = updated;
+        }
+        unindexDates(old);
+        indexDates(updated);
+        return updated;
     }
 
     /**
      * Deletes the task at the given 1-based index.
+     * The task's slot is retired rather than shifting every later task down, and the slots are compacted
+     * once more than half of them are retired.
      *
      * @param oneBasedIndex Index of the task to delete (starting from 1).
      * @return The removed task.
      * @throws IllegalArgumentException If the index is out of bounds.
      */
     public Task delete(int oneBasedIndex) {
-        int i = oneBasedIndex - 1;
         validateIndex(oneBasedIndex);
-        Task removed = tasks[i];
-        for (int j = i; j < count - 1; j++) {
-            tasks[j] = tasks[j + 1];
+        int i = oneBasedIndex - 1;
+        if (i == count - 1 && liveSlots == null) {
+            return removeLast(); // common case: nothing to retire
+        }
+        if (liveSlots == null) {
+            liveSlots = new LiveSlots(tasks.capacity(), slots, retired);
         }
-        tasks[count - 1] = null;
+        int s = liveSlots.select(i);
+        Task removed = at(s);
+        unindexDates(removed);
+        if (entries != null) {
+            keywordIndex.remove(entries[s]);
+            entries[s] = null;
+        }
+        tasks.set(s, null);
+        retired.set(s);
+        liveSlots.update(s, -1);
+        count--;
+        if (slots - count > count) {
+            compact();
+        }
+        return removed;
+    }
+
+    private Task removeLast() {
+        int s = slots - 1;
+        Task removed = at(s);
+        unindexDates(removed);
+        if (entries != null) {
+            keywordIndex.remove(entries[s]);
+            entries[s] = null;
+        }
+        tasks.set(s, null);
+        slots--;
         count--;
         return removed;
     }
 
     /**
-     * Returns the underlying task array used for storage.
+     * Deletes several tasks in one pass over the list, e.g. for {@code delete 3-40}.
+     *
+     * @param oneBasedIndexes Indexes of the tasks to delete, ascending and without duplicates.
+     * @return The removed tasks, in list order.
+     * @throws IllegalArgumentException If an index is out of bounds; nothing is deleted then.
+     */
+    public Task[] deleteAll(int[] oneBasedIndexes) {
+        for (int index : oneBasedIndexes) {
+            validateIndex(index);
+        }
+        compact();
+        ensureLazyRecords();
+        Task[] removed = new Task[oneBasedIndexes.length];
+        int k = 0;
+        int to = 0;
+        for (int s = 0; s < slots; s++) {
+            if (k < oneBasedIndexes.length && oneBasedIndexes[k] - 1 == s) {
+                removed[k] = at(s);
+                unindexDates(removed[k++]);
+                if (entries != null) {
+                    keywordIndex.remove(entries[s]);
+                }
+                continue;
+            }
+            moveSlot(s, to++);
+        }
+        clearSlots(to);
+        count = to;
+        return removed;
+    }
+
+    /**
+     * Marks several tasks as done, e.g. for {@code mark 1,5,9}.
+     *
+     * @param oneBasedIndexes Indexes of the tasks to mark.
+     * @return The marked tasks.
+     * @throws IllegalArgumentException If an index is out of bounds; nothing is marked then.
+     */
+    public Task[] markAll(int[] oneBasedIndexes) {
+        return setAllDone(oneBasedIndexes, true);
+    }
+
+    /**
+     * Marks several tasks as not done.
+     *
+     * @param oneBasedIndexes Indexes of the tasks to unmark.
+     * @return The unmarked tasks.
+     * @throws IllegalArgumentException If an index is out of bounds; nothing is unmarked then.
+     */
+    public Task[] unmarkAll(int[] oneBasedIndexes) {
+        return setAllDone(oneBasedIndexes, false);
+    }
+
+    private Task[] setAllDone(int[] oneBasedIndexes, boolean isDone) {
+        for (int index : oneBasedIndexes) {
+            validateIndex(index);
+        }
+        Task[] updated = new Task[oneBasedIndexes.length];
+        for (int k = 0; k < updated.length; k++) {
+            updated[k] = setDone(slotOf(oneBasedIndexes[k] - 1), isDone);
+        }
+        return updated;
+    }
+
+    /**
+     * Moves the live tasks to the front of the array in one pass, dropping the retired slots.
+     * Afterwards slot and position are the same again.
+     */
+    private void compact() {
+        if (liveSlots == null) {
+            return;
+        }
+        ensureLazyRecords();
+        int to = 0;
+        for (int s = 0; s < slots; s++) {
+            if (!retired.get(s)) {
+                moveSlot(s, to++);
+            }
+        }
+        clearSlots(to);
+        retired.clear();
+        liveSlots = null;
+    }
+
+    /**
+     * Gives every slot an explicit record number before slots move, while tasks are still being loaded lazily.
+     * The array covers the whole capacity and grows with it; slots past the mapped records hold added tasks,
+     * which are built already.
+     */
+    private void ensureLazyRecords() {
+        if (lazySource != null && lazyRecords == null) {
+            lazyRecords = new int[tasks.capacity()];
+            int records = lazySource.size();
+            for (int s = 0; s < lazyRecords.length; s++) {
+                lazyRecords[s] = s < records ? s : BUILT;
+            }
+        }
+    }
+
+    private void moveSlot(int from, int to) {
+        tasks.set(to, tasks.get(from));
+        if (entries != null) {
+            entries[to] = entries[from];
+        }
+        if (lazyRecords != null) {
+            lazyRecords[to] = lazyRecords[from];
+        }
+    }
+
+    /**
+     * Empties the slots from {@code newSlots} on, which now only hold moved-away tasks.
+     */
+    private void clearSlots(int newSlots) {
+        tasks.clear(newSlots, slots);
+        if (entries != null) {
+            Arrays.fill(entries, newSlots, slots, null);
+        }
+        slots = newSlots;
+    }
+
+    /**
+     * Replaces the whole content of the list with {@code snapshot} (e.g. to roll back a failed batch).
+     * The keyword index is rebuilt on the next {@link #find(String)}.
+     *
+     * @param snapshot The tasks the list should hold, in order; the array is copied.
+     */
+    public void restore(Task[] snapshot) {
+        tasks = new TaskSlots(snapshot, snapshot.length, snapshot.length + DEFAULT_CAPACITY);
+        count = snapshot.length;
+        slots = count;
+        retired.clear();
+        liveSlots = null;
+        dropLazySource();
+        entries = null;
+        keywordIndex = null;
+        deadlineIndex = null;
+        eventIndex = null;
+    }
+
+    /**
+     * Returns the tasks in list order in a new array, e.g. for code that needs a plain array.
+     * {@link #snapshot()} gives the same view without copying.
      *
-     * @return The backing task array.
+     * @return The tasks, one per element.
      */
     public Task[] backingArray() {
-        return tasks;
+        return snapshot().toArray();
+    }
+
+    /**
+     * Returns an immutable view of the list as it is now, e.g. to save or list it, in O(1).
+     * Later changes to the list never show in it; see {@link TaskSnapshot}.
+     * Tasks that a lazily loaded list has not built yet are built first.
+     *
+     * @return The snapshot.
+     */
+    public TaskSnapshot snapshot() {
+        buildAll();
+        return tasks.snapshot(slots, count);
     }
 
     private void validateIndex(int oneBasedIndex) {
@@ -134,20 +464,107 @@ public class TaskList {
 
     /**
      * Finds tasks whose description contains the given keyword (case-insensitive).
+     * Answered from the trigram index, so only tasks sharing the keyword's rarest trigram are checked.
      *
      * @param keyword Search keyword.
      * @return An array of matching tasks in the same order as they appear in the list.
      */
     public Task[] find(String keyword) {
-        String needle = keyword.toLowerCase();
-        List<Task> matches = new ArrayList<>();
+        if (entries == null) {
+            buildIndex();
+        }
+        List<KeywordIndex.Entry> matches = keywordIndex.find(keyword.toLowerCase(), entries, slots);
+        Task[] found = new Task[matches.size()];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = matches.get(i).task;
+        }
+        return found;
+    }
+
+    /**
+     * Returns up to {@code n} tasks that are not done yet, soonest deadline first. The list order is unchanged.
+     *
+     * @param n Maximum number of deadlines to return.
+     * @return The deadlines in due-date order; ties in the order they were added or unmarked.
+     */
+    public List<Deadline> nextDue(int n) {
+        buildDateIndexes();
+        return deadlineIndex.next(n);
+    }
+
+    /**
+     * Returns the deadlines that are not done yet and fall strictly before {@code date}, soonest first,
+     * e.g. the overdue ones for today's date.
+     *
+     * @param date The exclusive upper bound.
+     * @return The deadlines in due-date order; ties in the order they were added or unmarked.
+     */
+    public List<Deadline> dueBefore(LocalDate date) {
+        buildDateIndexes();
+        return deadlineIndex.before(date);
+    }
+
+    /**
+     * Returns the tasks that are not done yet and fall from {@code from} to {@code to} (inclusive):
+     * deadlines due in that range and events taking place on any day of it. Events whose start and end
+     * are free text are never included.
+     *
+     * @param from First day of the range.
+     * @param to   Last day of the range.
+     * @return The tasks ordered by due date or start day.
+     */
+    public List<Task> dueBetween(LocalDate from, LocalDate to) {
+        buildDateIndexes();
+        List<Deadline> deadlines = deadlineIndex.between(from, to);
+        List<Event> events = eventIndex.overlapping(from, to);
+        List<Task> merged = new ArrayList<>(deadlines.size() + events.size());
+        int d = 0;
+        int e = 0;
+        while (d < deadlines.size() || e < events.size()) {
+            boolean isDeadlineNext = e == events.size() || (d < deadlines.size()
+                    && !deadlines.get(d).getBy().isAfter(events.get(e).getStartDate()));
+            merged.add(isDeadlineNext ? deadlines.get(d++) : events.get(e++));
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the events that are not done yet and take place on {@code date}, earliest start first.
+     *
+     * @param date The day to look at.
+     * @return The events spanning that day.
+     */
+    public List<Event> happeningOn(LocalDate date) {
+        buildDateIndexes();
+        return eventIndex.overlapping(date, date);
+    }
+
+    private void buildDateIndexes() {
+        if (deadlineIndex != null) {
+            return;
+        }
+        buildAll();
+        compact();
+        deadlineIndex = new DeadlineIndex();
+        eventIndex = new EventIndex();
         for (int i = 0; i < count; i++) {
-            String desc = tasks[i].getDescription();
-            if (desc.toLowerCase().contains(needle)) {
-                matches.add(tasks[i]);
-            }
+            deadlineIndex.add(tasks.get(i));
+            eventIndex.add(tasks.get(i));
+        }
+    }
+
+    private void indexDates(Task t) {
+        if (deadlineIndex != null) {
+            deadlineIndex.add(t);
+            eventIndex.add(t);
+        }
+    }
+
+    private void unindexDates(Task t) {
+        if (deadlineIndex != null) {
+            deadlineIndex.remove(t);
+            eventIndex.remove(t);
         }
-        return matches.toArray(new Task[0]);
     }
 
     /**
@@ -155,7 +572,44 @@ public class TaskList {
      * (You can later change comparator to sort by deadline if desired.)
      */
     public void sortByDescription() {
-        Arrays.sort(tasks, 0, count, Comparator.comparing(Task::getDescription, String.CASE_INSENSITIVE_ORDER));
+        sort(Comparator.comparing(Task::getDescription, String.CASE_INSENSITIVE_ORDER));
+    }
+
+    private void buildIndex() {
+        buildAll();
+        compact();
+        keywordIndex = new KeywordIndex();
+        entries = new KeywordIndex.Entry[tasks.capacity()];
+        for (int i = 0; i < count; i++) {
+            entries[i] = keywordIndex.add(tasks.get(i), i);
+        }
+        nextPosition = count;
+    }
+
+    /**
+     * Sorts the tasks together with their index entries, then renumbers the entry positions.
+     * The sort is stable, exactly like sorting the task array alone.
+     */
+    private void sort(Comparator<Task> order) {
+        buildAll();
+        compact();
+        if (entries == null) {
+            Task[] sorted = new Task[count];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = tasks.get(i);
+            }
+            Arrays.sort(sorted, order);
+            for (int i = 0; i < count; i++) {
+                tasks.set(i, sorted[i]);
+            }
+            return;
+        }
+        Arrays.sort(entries, 0, count, (e1, e2) -> order.compare(e1.task, e2.task));
+        for (int i = 0; i < count; i++) {
+            tasks.set(i, entries[i].task);
+            entries[i].position = i;
+        }
+        nextPosition = count;
     }
 
     /**
@@ -163,7 +617,7 @@ public class TaskList {
      * Non-Deadline tasks will appear last.
      */
     public void sortByDeadline() {
-        Arrays.sort(tasks, 0, count, (t1, t2) -> {
+        sort((t1, t2) -> {
             // Both are Deadline
             if (t1 instanceof Deadline && t2 instanceof Deadline) {
                 return ((Deadline) t1).getBy().compareTo(((Deadline) t2).getBy());
@@ -0,0 +1,144 @@
+package mang;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A set of tasks picked by a multi-task command: task numbers and ranges such as {@code 1,5,9} or
+ * {@code 3-40}, or {@code done} for every finished task. Created by {@link Parser#parseSelectionAfter}.
+ */
+public class TaskSelection {
+    private final boolean isDone;
+    private final int[] from; // inclusive 1-based ranges; single numbers have from == to
+    private final int[] to;
+
+    private TaskSelection(boolean isDone, int[] from, int[] to) {
+        this.isDone = isDone;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Parses a selection spec.
+     *
+     * @param spec e.g. {@code "3"}, {@code "3-40"}, {@code "1, 5, 9"} or {@code "done"}
+     * @return the selection
+     * @throws NumberFormatException if the spec is not a valid selection
+     */
+    public static TaskSelection parse(String spec) {
+        String trimmed = spec.trim();
+        if ("done".equalsIgnoreCase(trimmed)) {
+            return new TaskSelection(true, new int[0], new int[0]);
+        }
+        String[] items = trimmed.split(",", -1);
+        int[] from = new int[items.length];
+        int[] to = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            String item = items[i].trim();
+            int dash = item.indexOf('-', 1);
+            try {
+                from[i] = Integer.parseInt(dash < 0 ? item : item.substring(0, dash).trim());
+                to[i] = dash < 0 ? from[i] : Integer.parseInt(item.substring(dash + 1).trim());
+            } catch (NumberFormatException e) {
+                if (items.length == 1 && dash < 0) {
+                    throw new NumberFormatException("That does not look like a valid number.");
+                }
+                throw new NumberFormatException("That does not look like a valid task number or range: '" + item
+                        + "'. Use e.g. 3, 1,5,9, 3-40 or done.");
+            }
+            if (from[i] > to[i]) {
+                throw new NumberFormatException("The range " + item + " runs backwards.");
+            }
+        }
+        return new TaskSelection(false, from, to);
+    }
+
+    /**
+     * Returns the selection of exactly the given task numbers, with consecutive numbers merged into ranges.
+     *
+     * @param numbers ascending 1-based task numbers without duplicates, e.g. from {@link #resolve(TaskList)}
+     */
+    public static TaskSelection of(int[] numbers) {
+        int ranges = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            if (i == 0 || numbers[i] != numbers[i - 1] + 1) {
+                ranges++;
+            }
+        }
+        int[] from = new int[ranges];
+        int[] to = new int[ranges];
+        int r = -1;
+        for (int i = 0; i < numbers.length; i++) {
+            if (i == 0 || numbers[i] != numbers[i - 1] + 1) {
+                from[++r] = numbers[i];
+            }
+            to[r] = numbers[i];
+        }
+        return new TaskSelection(false, from, to);
+    }
+
+    /**
+     * Returns true if this selects exactly one task number, so the single-task command can handle it.
+     */
+    public boolean isSingle() {
+        return !isDone && from.length == 1 && from[0] == to[0];
+    }
+
+    /**
+     * Returns the only task number of a {@link #isSingle() single} selection.
+     */
+    public int single() {
+        return from[0];
+    }
+
+    /**
+     * Returns the selected 1-based task numbers of {@code tasks}, in ascending order and without duplicates.
+     * Nothing is selected twice even if ranges overlap.
+     *
+     * @throws IllegalArgumentException if a selected number does not exist in {@code tasks}
+     */
+    public int[] resolve(TaskList tasks) {
+        if (isDone) {
+            List<Integer> done = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i).isDone()) {
+                    done.add(i + 1);
+                }
+            }
+            return done.stream().mapToInt(Integer::intValue).toArray();
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] < 1 || to[i] > tasks.size()) {
+                int missing = from[i] < 1 ? from[i] : Math.max(from[i], tasks.size() + 1);
+                throw new IllegalArgumentException("mang.Task number " + missing + " does not exist.");
+            }
+        }
+        BitSet picked = new BitSet(tasks.size() + 1);
+        for (int i = 0; i < from.length; i++) {
+            picked.set(from[i], to[i] + 1);
+        }
+        return picked.stream().toArray();
+    }
+
+    /**
+     * Returns the spec in a canonical form that {@link #parse(String)} reads back, e.g. {@code 1,3-40}.
+     */
+    @Override
+    public String toString() {
+        if (isDone) {
+            return "done";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < from.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(from[i]);
+            if (to[i] != from[i]) {
+                sb.append('-').append(to[i]);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package mang;
+
+import java.util.Arrays;
+
+/**
+ * The slot array of a {@link TaskList}, kept in chunks of {@value #CHUNK_SIZE} slots so that snapshots can share it.
+ *
+ * <p>{@link #snapshot(int, int)} is O(1): it freezes the current chunks instead of copying them. The first write
+ * to a frozen chunk copies just that chunk, and the first write after a snapshot also copies the array of chunk
+ * references (one entry per {@value #CHUNK_SIZE} slots). A snapshot therefore never sees later writes, and a
+ * writer never copies more than one chunk per slot it touches.
+ */
+final class TaskSlots {
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Task[][] chunks; // null chunks hold only empty slots
+    private int[] owners; // epoch in which chunks[c] was allocated or copied for the live list
+    private int epoch = 1; // bumped by every snapshot, which makes every existing chunk shared
+    private boolean isShared; // chunks itself is referenced by a snapshot
+
+    /**
+     * Creates empty slots with room for at least {@code capacity} tasks.
+     */
+    TaskSlots(int capacity) {
+        chunks = new Task[chunksFor(capacity)][];
+        owners = new int[chunks.length];
+    }
+
+    /**
+     * Creates slots holding the first {@code count} elements of {@code tasks}, with some room to grow.
+     */
+    TaskSlots(Task[] tasks, int count, int capacity) {
+        this(Math.max(count, capacity));
+        for (int c = 0; c * CHUNK_SIZE < count; c++) {
+            Task[] chunk = new Task[CHUNK_SIZE];
+            System.arraycopy(tasks, c * CHUNK_SIZE, chunk, 0, Math.min(CHUNK_SIZE, count - c * CHUNK_SIZE));
+            chunks[c] = chunk;
+            owners[c] = epoch;
+        }
+    }
+
+    private static int chunksFor(int capacity) {
+        return Math.max(1, (int) ((capacity + (long) CHUNK_MASK) >>> CHUNK_BITS));
+    }
+
+    /**
+     * Returns the number of slots available before {@link #ensureCapacity(int)} has to grow the array.
+     */
+    int capacity() {
+        return chunks.length * CHUNK_SIZE;
+    }
+
+    /**
+     * Makes room for at least {@code minCapacity} slots, at least doubling the chunk array when it grows.
+     */
+    void ensureCapacity(int minCapacity) {
+        int needed = chunksFor(minCapacity);
+        if (needed > chunks.length) {
+            int grown = Math.max(needed, chunks.length * 2);
+            chunks = Arrays.copyOf(chunks, grown);
+            owners = Arrays.copyOf(owners, grown);
+            isShared = false; // the snapshot keeps the old array
+        }
+    }
+
+    Task get(int s) {
+        Task[] chunk = chunks[s >>> CHUNK_BITS];
+        return chunk == null ? null : chunk[s & CHUNK_MASK];
+    }
+
+    void set(int s, Task t) {
+        int c = s >>> CHUNK_BITS;
+        if (isShared) {
+            chunks = chunks.clone();
+            isShared = false;
+        }
+        Task[] chunk = chunks[c];
+        if (chunk == null) {
+            if (t == null) {
+                return;
+            }
+            chunk = new Task[CHUNK_SIZE];
+            chunks[c] = chunk;
+            owners[c] = epoch;
+        } else if (owners[c] != epoch) {
+            chunk = chunk.clone(); // still part of a snapshot
+            chunks[c] = chunk;
+            owners[c] = epoch;
+        }
+        chunk[s & CHUNK_MASK] = t;
+    }
+
+    /**
+     * Empties slots {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    void clear(int from, int to) {
+        for (int s = from; s < to; s++) {
+            if (get(s) != null) {
+                set(s, null);
+            }
+        }
+    }
+
+    /**
+     * Freezes the slots in O(1) and returns a view of the first {@code slots} of them, which hold {@code count}
+     * tasks; empty slots are skipped by the view.
+     */
+    TaskSnapshot snapshot(int slots, int count) {
+        isShared = true;
+        epoch++;
+        return new TaskSnapshot(chunks, slots, count);
+    }
+}
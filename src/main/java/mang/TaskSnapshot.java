@@ -0,0 +1,127 @@
+package mang;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable view of a {@link TaskList} at one moment, taken in O(1) by {@link TaskList#snapshot()}.
+ * Rendering and saving read it without holding up the list: later changes never show in it, because
+ * the list copies what it changes (see {@link TaskSlots}) and marks tasks by replacing them with a copy.
+ *
+ * <p>Iterating is O(n). Positional access is O(1), except after deletions that the list has not compacted yet:
+ * then the first {@link #get(int)} maps positions to slots in one O(n) pass, done by the reader.
+ */
+public final class TaskSnapshot implements Iterable<Task> {
+    private final Task[][] chunks;
+    private final int slots;
+    private final int count;
+    private volatile int[] slotOfPosition; // built by the first get(int) when slots has gaps
+
+    TaskSnapshot(Task[][] chunks, int slots, int count) {
+        this.chunks = chunks;
+        this.slots = slots;
+        this.count = count;
+    }
+
+    /**
+     * Returns a snapshot of the first {@code count} elements of {@code tasks}; null elements are skipped.
+     * The array is copied, so the caller may keep changing it.
+     *
+     * @param tasks The tasks in list order.
+     * @param count How many elements of {@code tasks} to include.
+     * @return The snapshot.
+     */
+    public static TaskSnapshot of(Task[] tasks, int count) {
+        int present = 0;
+        for (int i = 0; i < count; i++) {
+            if (tasks[i] != null) {
+                present++;
+            }
+        }
+        return new TaskSlots(tasks, count, count).snapshot(count, present);
+    }
+
+    private Task slot(int s) {
+        Task[] chunk = chunks[s >>> TaskSlots.CHUNK_BITS];
+        return chunk == null ? null : chunk[s & (TaskSlots.CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Returns the number of tasks.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the task at the given zero-based position.
+     *
+     * @param zeroBasedIndex The position, from 0 to {@code size() - 1}.
+     * @return The task.
+     * @throws IndexOutOfBoundsException If there is no such position.
+     */
+    public Task get(int zeroBasedIndex) {
+        if (zeroBasedIndex < 0 || zeroBasedIndex >= count) {
+            throw new IndexOutOfBoundsException("No task at position " + zeroBasedIndex);
+        }
+        if (slots == count) {
+            return slot(zeroBasedIndex);
+        }
+        int[] map = slotOfPosition;
+        if (map == null) {
+            map = new int[count];
+            int i = 0;
+            for (int s = 0; s < slots; s++) {
+                if (slot(s) != null) {
+                    map[i++] = s;
+                }
+            }
+            slotOfPosition = map; // racing readers build identical maps
+        }
+        return slot(map[zeroBasedIndex]);
+    }
+
+    /**
+     * Returns the tasks in list order in a new array.
+     */
+    public Task[] toArray() {
+        Task[] copy = new Task[count];
+        int i = 0;
+        for (Task t : this) {
+            copy[i++] = t;
+        }
+        return copy;
+    }
+
+    /**
+     * Iterates over the tasks in list order.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int s = advance(0);
+
+            private int advance(int from) {
+                while (from < slots && slot(from) == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return s < slots;
+            }
+
+            @Override
+            public Task next() {
+                if (s >= slots) {
+                    throw new NoSuchElementException();
+                }
+                Task t = slot(s);
+                s = advance(s + 1);
+                return t;
+            }
+        };
+    }
+}
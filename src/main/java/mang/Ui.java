@@ -4,18 +4,24 @@ import java.util.Scanner;
 
 /**
  * Deals with all user interactions (printing and reading).
+ * As a {@link Reply} it streams every response line as it is produced. Output is buffered
+ * and flushed after each divider line, so long listings are not slowed down by a flush per line.
  */
-public class Ui {
+public class Ui implements Reply {
     private static final String LINE =
             "____________________________________________________________";
 
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
     private final Scanner scanner = new Scanner(System.in);
+    private final StringBuilder pending = new StringBuilder();
 
     /**
      * Prints the horizontal divider line.
      */
     public void showLine() {
-        System.out.println(LINE);
+        print(LINE);
+        flush();
     }
 
     /**
@@ -23,18 +29,9 @@ public class Ui {
      */
     public void showWelcome() {
         showLine();
-        System.out.println(" Hello! I'm Mang, your friendly neighborhood chatbot!");
-        System.out.println(" What can I do for you?");
-        System.out.println(" Type 'bye' whenever you want to end our chat.");
-        showLine();
-    }
-
-    /**
-     * Shows the goodbye message.
-     */
-    public void showBye() {
-        showLine();
-        System.out.println(" Bye. Hope to see you again soon!");
+        print(" Hello! I'm Mang, your friendly neighborhood chatbot!");
+        print(" What can I do for you?");
+        print(" Type 'bye' whenever you want to end our chat.");
         showLine();
     }
 
@@ -42,61 +39,22 @@ public class Ui {
      * Reads one command line from STDIN, trimmed.
      */
     public String readCommand() {
+        flush();
         return scanner.nextLine().trim();
     }
 
     /**
-     * Shows the current task list.
+     * Prints one line of a command's response, indented by one space.
      */
-    public void showList(TaskList list) {
-        showLine();
-        System.out.println(" Here are the tasks in your list:");
-        for (int i = 0; i < list.size(); i++) {
-            System.out.println(" " + (i + 1) + "." + list.get(i));
-        }
-        showLine();
+    @Override
+    public void line(String text) {
+        pending.append(' ');
+        print(text);
     }
 
-    /**
-     * Shows a task added message.
-     */
-    public void showAdded(Task t, int newCount) {
-        showLine();
-        System.out.println(" Got it. I've added this task:");
-        System.out.println("   " + t);
-        System.out.println(" Now you have " + newCount + " tasks in the list.");
-        showLine();
-    }
-
-    /**
-     * Shows a task marked as done message.
-     */
-    public void showMarked(Task t) {
-        showLine();
-        System.out.println(" Nice! I've marked this task as done:");
-        System.out.println("   " + t);
-        showLine();
-    }
-
-    /**
-     * Shows a task marked as not done message.
-     */
-    public void showUnmarked(Task t) {
-        showLine();
-        System.out.println(" OK, I've marked this task as not done yet:");
-        System.out.println("   " + t);
-        showLine();
-    }
-
-    /**
-     * Shows a removed task message.
-     */
-    public void showRemoved(Task removed, int newCount) {
-        showLine();
-        System.out.println(" Noted. I've removed this task:");
-        System.out.println("   " + removed);
-        System.out.println(" Now you have " + newCount + " tasks in the list.");
-        showLine();
+    @Override
+    public boolean isStreaming() {
+        return true;
     }
 
     /**
@@ -104,21 +62,25 @@ public class Ui {
      */
     public void showError(String message) {
         showLine();
-        System.out.println(" " + message);
+        line(message);
         showLine();
     }
 
+    private void print(String text) {
+        pending.append(text).append(System.lineSeparator());
+        if (pending.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
     /**
-     * Shows the results of a {@code find} command.
-     *
-     * @param results Matching tasks to display (maybe empty).
+     * Writes out everything printed so far.
      */
-    public void showFound(Task[] results) {
-        showLine();
-        System.out.println(" Here are the matching tasks in your list:");
-        for (int i = 0; i < results.length; i++) {
-            System.out.println(" " + (i + 1) + "." + results[i]);
+    public void flush() {
+        if (pending.length() > 0) {
+            System.out.print(pending);
+            pending.setLength(0);
         }
-        showLine();
+        System.out.flush();
     }
 }
@@ -0,0 +1,154 @@
+package mang;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The named task lists (workspaces) of one chatbot. Each workspace has its own data file (see
+ * {@link Storage#forWorkspace(String)}), its own {@link TaskList} and its own {@link WriteBehindPersister},
+ * so a change only ever rewrites the file of the workspace it was made in.
+ *
+ * <p>A workspace is loaded on first {@link #open(String)}. At most {@code maxLoaded} workspaces stay in memory:
+ * {@link #evictIdle()} writes out and drops the least recently opened ones beyond that, never the one opened last.
+ * The workspace called {@value #DEFAULT_NAME} is the data file the chatbot was started with.
+ */
+public class Workspaces {
+    /** Name of the workspace backed by the chatbot's own data file. */
+    public static final String DEFAULT_NAME = "default";
+
+    private final Storage defaultStorage;
+    private final boolean isConcurrent; // wrap loaded lists in ConcurrentTaskList, like the default one
+    private final int maxLoaded;
+    private final Map<String, Workspace> loaded = new LinkedHashMap<>(16, 0.75f, true); // least recent first
+
+    /**
+     * One loaded workspace.
+     */
+    static final class Workspace {
+        final String name;
+        final Storage storage;
+        final TaskList tasks;
+        final WriteBehindPersister persister;
+
+        private Workspace(String name, Storage storage, TaskList tasks) {
+            this.name = name;
+            this.storage = storage;
+            this.tasks = tasks;
+            this.persister = new WriteBehindPersister(storage);
+        }
+    }
+
+    /**
+     * Creates the workspaces of a chatbot whose default workspace has already been loaded.
+     *
+     * @param defaultStorage The storage of the default workspace; other workspaces live next to its file.
+     * @param defaultTasks   The tasks loaded from {@code defaultStorage}.
+     * @param maxLoaded      How many workspaces may stay in memory (at least 1).
+     */
+    public Workspaces(Storage defaultStorage, TaskList defaultTasks, int maxLoaded) {
+        this.defaultStorage = defaultStorage;
+        this.isConcurrent = defaultTasks instanceof ConcurrentTaskList;
+        this.maxLoaded = Math.max(1, maxLoaded);
+        loaded.put(DEFAULT_NAME, new Workspace(DEFAULT_NAME, defaultStorage, defaultTasks));
+    }
+
+    /**
+     * Returns the workspace {@code name}, loading it from its data file (created empty if missing) if it is not
+     * in memory, and makes it the most recently used one.
+     *
+     * @param name A workspace name, as returned by {@link Parser#parseWorkspaceName(String, String)}.
+     * @return The workspace.
+     * @throws StorageException If the workspace cannot be loaded.
+     */
+    synchronized Workspace open(String name) {
+        Workspace workspace = loaded.get(name);
+        if (workspace == null) {
+            Storage storage = DEFAULT_NAME.equals(name) ? defaultStorage : defaultStorage.forWorkspace(name);
+            TaskList tasks = storage.load();
+            workspace = new Workspace(name, storage, isConcurrent ? new ConcurrentTaskList(tasks) : tasks);
+            loaded.put(name, workspace);
+        }
+        return workspace;
+    }
+
+    /**
+     * Writes out and drops the least recently used workspaces until at most {@code maxLoaded} are in memory.
+     * The workspace opened last always stays. A workspace whose pending writes fail stays loaded with its persister
+     * still running, so the next change retries the write.
+     *
+     * @throws StorageException If the pending writes of an evicted workspace fail.
+     */
+    synchronized void evictIdle() {
+        Iterator<Workspace> leastRecent = loaded.values().iterator();
+        while (loaded.size() > maxLoaded) {
+            Workspace idle = leastRecent.next();
+            idle.persister.flush(); // only writes what is still queued; on failure it stays loaded, still working
+            idle.persister.shutdown();
+            leastRecent.remove();
+        }
+    }
+
+    /**
+     * Returns true if the workspace is in memory.
+     */
+    public synchronized boolean isLoaded(String name) {
+        return loaded.containsKey(name);
+    }
+
+    /**
+     * Returns the number of tasks in a workspace that is in memory, or -1 if it is not loaded.
+     */
+    public synchronized int loadedSize(String name) {
+        for (Workspace workspace : loaded.values()) { // get() would count as a use
+            if (workspace.name.equals(name)) {
+                return workspace.tasks.size();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the names of all workspaces, those in memory and those on disk: the default one first,
+     * then the others in alphabetical order.
+     *
+     * @throws StorageException If the workspace directory cannot be read.
+     */
+    public synchronized List<String> names() {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_NAME);
+        for (String name : defaultStorage.listWorkspaces()) {
+            if (!DEFAULT_NAME.equals(name)) {
+                names.add(name);
+            }
+        }
+        for (String name : loaded.keySet()) {
+            if (!names.contains(name)) {
+                names.add(name); // opened, but its file is not written yet
+            }
+        }
+        names.subList(1, names.size()).sort(null);
+        return names;
+    }
+
+    /**
+     * Writes out every workspace in memory and stops their persisters.
+     *
+     * @throws StorageException If the pending writes of any workspace fail; the others are still written.
+     */
+    public synchronized void shutdown() {
+        StorageException failure = null;
+        for (Workspace workspace : loaded.values()) {
+            try {
+                workspace.persister.shutdown();
+            } catch (StorageException se) {
+                failure = failure == null ? se : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package mang;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes tasks to {@link Storage} on a background thread so callers (e.g. the JavaFX thread) never wait for disk.
+ * Writes run strictly in the order they were scheduled. A burst of full saves that are queued back to back
+ * collapses into one write of the newest snapshot. Failures are kept and rethrown as {@link StorageException}
+ * by the next {@link #rethrowFailure()} or {@link #flush()}.
+ */
+public class WriteBehindPersister {
+    private final Storage storage;
+    private final ExecutorService worker;
+    private final AtomicReference<StorageException> failure = new AtomicReference<>();
+    private PendingSave pending; // queued save that has not started yet; guarded by this
+
+    /**
+     * A full save waiting in the queue; newer snapshots replace {@code snapshot} until it runs.
+     */
+    private static final class PendingSave {
+        private TaskSnapshot snapshot;
+
+        private PendingSave(TaskSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * Creates a persister that writes to the given storage from a single daemon thread.
+     *
+     * @param storage the storage all writes go to
+     */
+    public WriteBehindPersister(Storage storage) {
+        this.storage = storage;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "mang-persister");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedules a full save of {@code snapshot}. The array is copied, so the caller may reuse it.
+     *
+     * @param snapshot the tasks to write, taken on the caller's thread
+     */
+    public void scheduleSave(Task[] snapshot) {
+        scheduleSave(TaskSnapshot.of(snapshot, snapshot.length));
+    }
+
+    /**
+     * Schedules a full save of {@code snapshot}, e.g. from {@link TaskList#snapshot()}.
+     *
+     * @param snapshot the tasks to write, taken on the caller's thread
+     */
+    public synchronized void scheduleSave(TaskSnapshot snapshot) {
+        if (pending != null) {
+            pending.snapshot = snapshot; // coalesce with the save that is already queued
+            return;
+        }
+        PendingSave save = new PendingSave(snapshot);
+        pending = save;
+        worker.execute(() -> write(save));
+    }
+
+    /**
+     * Schedules a journal append, e.g. {@code () -> storage.appendMark(2)}.
+     * Saves scheduled afterwards are queued behind it instead of being merged into an earlier save.
+     *
+     * @param journalRecord the append to run on the persister thread
+     */
+    public synchronized void scheduleAppend(Runnable journalRecord) {
+        pending = null;
+        worker.execute(() -> {
+            try {
+                journalRecord.run();
+            } catch (StorageException se) {
+                failure.set(se);
+            }
+        });
+    }
+
+    private void write(PendingSave save) {
+        TaskSnapshot snapshot;
+        synchronized (this) {
+            snapshot = save.snapshot;
+            if (pending == save) {
+                pending = null;
+            }
+        }
+        try {
+            storage.save(snapshot);
+        } catch (StorageException se) {
+            failure.set(se);
+        }
+    }
+
+    /**
+     * Throws the most recent background write failure, if any, and clears it.
+     *
+     * @throws StorageException if a background write failed since the last check
+     */
+    public void rethrowFailure() {
+        StorageException se = failure.getAndSet(null);
+        if (se != null) {
+            throw se;
+        }
+    }
+
+    /**
+     * Blocks until every write scheduled so far has finished.
+     *
+     * @throws StorageException if any of those writes failed
+     */
+    public void flush() {
+        try {
+            worker.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Interrupted while waiting for tasks to be saved.", e);
+        } catch (ExecutionException e) {
+            throw new StorageException("Unable to finish saving tasks: " + e.getCause().getMessage(), e);
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Flushes all scheduled writes and stops the persister thread.
+     *
+     * @throws StorageException if any of the flushed writes failed
+     */
+    public void shutdown() {
+        try {
+            flush();
+        } finally {
+            worker.shutdown();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package mang.gui;
+
+/**
+ * One entry of the chat transcript: the text and who said it.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isUser;
+
+    /**
+     * Creates a transcript entry.
+     *
+     * @param text   The message text.
+     * @param isUser True if the user sent it, false if Mang did.
+     */
+    public ChatMessage(String text, boolean isUser) {
+        this.text = text;
+        this.isUser = isUser;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isUser() {
+        return isUser;
+    }
+}
@@ -24,6 +24,8 @@ public class DialogBox extends HBox {
     @FXML
     private ImageView displayPicture;
 
+    private boolean isFlipped;
+
     private DialogBox(String text, Image img) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
@@ -45,7 +47,23 @@ public class DialogBox extends HBox {
         ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
         Collections.reverse(tmp);
         getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+        isFlipped = !isFlipped;
+        setAlignment(isFlipped ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
+    }
+
+    /**
+     * Reuses this dialog box for another message, flipping it if the speaker changed.
+     *
+     * @param text   The message text.
+     * @param img    The speaker's picture.
+     * @param isUser True for the user's layout (text left of the picture), false for Mang's.
+     */
+    public void show(String text, Image img, boolean isUser) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (isUser == isFlipped) {
+            flip();
+        }
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
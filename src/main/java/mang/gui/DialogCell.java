@@ -0,0 +1,40 @@
+package mang.gui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * A transcript cell that reuses one {@link DialogBox} for whichever message it currently shows,
+ * so only the visible messages ever have a dialog box.
+ */
+public class DialogCell extends ListCell<ChatMessage> {
+    private static final double SCROLLBAR_ALLOWANCE = 20.0;
+
+    private final Image userImage;
+    private final Image mangImage;
+    private final DialogBox box;
+
+    /**
+     * Creates a cell for {@code list} that renders messages with the given avatars.
+     */
+    public DialogCell(ListView<ChatMessage> list, Image userImage, Image mangImage) {
+        this.userImage = userImage;
+        this.mangImage = mangImage;
+        this.box = DialogBox.getUserDialog("", userImage);
+        // size to the list instead of the text, so long messages wrap rather than scroll sideways
+        box.prefWidthProperty().bind(list.widthProperty().subtract(SCROLLBAR_ALLOWANCE));
+        setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        box.show(message.getText(), message.isUser() ? userImage : mangImage, message.isUser());
+        setGraphic(box);
+    }
+}
@@ -8,6 +8,7 @@ import javafx.application.Application;
  */
 public class Launcher {
     public static void main(String[] args) {
+        Startup.markLaunch();
         // Launches the Main class which extends javafx.application.Application
         Application.launch(Main.class, args);
     }
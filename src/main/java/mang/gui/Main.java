@@ -1,6 +1,7 @@
 package mang.gui;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -14,23 +15,54 @@ import mang.Mang;
  */
 public class Main extends Application {
 
-    private Mang mang = new Mang();
+    private CompletableFuture<Mang> mang;
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
         try {
+            long fxmlStart = System.nanoTime();
             FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
+            Startup.record("FXML", fxmlStart);
             Scene scene = new Scene(ap);
             stage.setTitle("Mang");
             stage.setScene(scene);
 
-            // inject the Mang instance
-            fxmlLoader.<MainWindow>getController().setMang(mang);
+            // inject the Mang instance; in fast-start mode it arrives once the data file is loaded
+            mainWindow = fxmlLoader.<MainWindow>getController();
+            if (Startup.IS_FAST) {
+                mang = CompletableFuture.supplyAsync(Main::loadMang, r -> {
+                    Thread t = new Thread(r, "mang-loader");
+                    t.setDaemon(true);
+                    t.start();
+                });
+            } else {
+                mang = CompletableFuture.completedFuture(loadMang());
+            }
+            mainWindow.setMang(mang);
+            Startup.recordFirstFrame(scene);
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
-}
 
+    private static Mang loadMang() {
+        long start = System.nanoTime();
+        Mang loaded = new Mang();
+        Startup.record("storage load", start);
+        return loaded;
+    }
+
+    @Override
+    public void stop() {
+        // stop running commands first, then make sure writes queued on the background persister reach the disk
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        }
+        if (mang != null && mang.isDone() && !mang.isCompletedExceptionally()) {
+            mang.join().shutdown(); // a load still in progress has nothing to write
+        }
+    }
+}
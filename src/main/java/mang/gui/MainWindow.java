@@ -1,54 +1,123 @@
 package mang.gui;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.scene.layout.HBox;
 import mang.Mang;
 
 /**
  * Controller for the main GUI.
+ * Commands run one at a time on a background thread, so a slow command never freezes the window;
+ * replies are added to the transcript on the JavaFX thread in the order the commands were sent.
+ * Commands typed while the data file is still loading wait for it on that thread.
  */
 public class MainWindow extends AnchorPane {
+    /** Messages kept in the transcript; override with -Dmang.history.max. */
+    private static final int DEFAULT_MAX_HISTORY = 1000;
+    // states of a CommandTask: queries stay CANCELLABLE until they finish
+    private static final int CANCELLABLE = 0;
+    private static final int CHANGING = 1;
+    private static final int CANCELLED = 2;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private HBox workingIndicator;
 
-    private Mang mang;
+    private CompletableFuture<Mang> mang = new CompletableFuture<>();
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
-    private Image mangImage = new Image(this.getClass().getResourceAsStream("/images/DaDuke.png"));
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    private final int maxHistory = Math.max(2, Integer.getInteger("mang.history.max", DEFAULT_MAX_HISTORY));
+
+    // a single thread keeps commands in the order they were typed
+    private final ExecutorService commandRunner = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "mang-commands");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Deque<CommandTask> pending = new ArrayDeque<>(); // only touched on the JavaFX thread
+
+    private Image userImage;
+    private Image mangImage;
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
-        dialogContainer.getChildren().add(
-                DialogBox.getMangDialog(
-                        """
-                                Hello! I'm Mang, your friendly neighborhood chatbot!
-                                What can I do for you?
-                                Type 'bye' whenever you want to end our chat.""", mangImage)
-        );
+        long imageStart = System.nanoTime();
+        userImage = loadImage("/images/DaUser.png");
+        mangImage = loadImage("/images/DaDuke.png");
+        Startup.record("images", imageStart);
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list -> new DialogCell(list, userImage, mangImage));
+        userInput.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                handleCancel();
+            }
+        });
+        addMessages(new ChatMessage("""
+                Hello! I'm Mang, your friendly neighborhood chatbot!
+                What can I do for you?
+                Type 'bye' whenever you want to end our chat.""", false));
+    }
+
+    /**
+     * In fast-start mode images decode in the background and appear in the dialog boxes when ready.
+     */
+    private Image loadImage(String path) {
+        if (Startup.IS_FAST) {
+            return new Image(this.getClass().getResource(path).toExternalForm(), true);
+        }
+        return new Image(this.getClass().getResourceAsStream(path));
     }
 
     /**
      * Injects the Mang instance
      */
     public void setMang(Mang m) {
-        mang = m;
+        setMang(CompletableFuture.completedFuture(m));
+    }
+
+    /**
+     * Injects a Mang instance that may still be loading. The working indicator shows until it is ready,
+     * and commands typed before then run once it is.
+     */
+    public void setMang(CompletableFuture<Mang> loading) {
+        mang = loading;
+        updateWorkingIndicator();
+        loading.whenComplete((m, e) -> Platform.runLater(() -> {
+            updateWorkingIndicator();
+            if (e != null) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                addMessages(new ChatMessage("OOPS! Could not load your tasks: " + cause.getMessage(), false));
+            }
+        }));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Mang's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds the user input to the transcript and queues the command; Mang's reply is added when it is ready.
+     * Clears the user input after processing.
      */
     @FXML
     private void handleUserInput() {
@@ -56,14 +125,141 @@ public class MainWindow extends AnchorPane {
         if (input.isBlank()) {
             return;
         }
-        String response = mang.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getMangDialog(response, mangImage)
-        );
+        addMessages(new ChatMessage(input, true));
         userInput.clear();
-        if (input.equalsIgnoreCase("bye")) {
-            javafx.application.Platform.exit();
+        CommandTask task = new CommandTask(input);
+        pending.addLast(task);
+        updateWorkingIndicator();
+        commandRunner.execute(task);
+    }
+
+    /**
+     * Cancels the command that is running now, unless it has started changing the tasks: such a command is left
+     * to finish, so its real reply is shown. Commands typed after it still run.
+     */
+    @FXML
+    private void handleCancel() {
+        CommandTask running = pending.peekFirst();
+        if (running != null && !running.cancel(true) && running.isChanging()) {
+            addMessages(new ChatMessage("'" + running.input + "' is already changing your tasks, so it will finish.",
+                    false));
+        }
+    }
+
+    /**
+     * Shows the reply of a finished (or cancelled) command. Runs on the JavaFX thread.
+     */
+    private void finish(CommandTask task) {
+        pending.remove(task);
+        updateWorkingIndicator();
+        String response;
+        if (task.isCancelled()) {
+            response = "Cancelled: " + task.input;
+        } else {
+            try {
+                response = task.get();
+            } catch (ExecutionException e) {
+                response = "OOPS! " + e.getCause().getMessage();
+            } catch (InterruptedException e) {
+                response = "OOPS! " + e.getMessage();
+            }
+        }
+        addMessages(new ChatMessage(response, false));
+        if (!task.isCancelled() && task.input.trim().equalsIgnoreCase("bye")) {
+            Platform.exit();
+        }
+    }
+
+    private void updateWorkingIndicator() {
+        workingIndicator.setVisible(!pending.isEmpty() || !mang.isDone());
+    }
+
+    /**
+     * Stops the command thread, giving a running command a moment to finish.
+     * Called before Mang itself shuts down.
+     */
+    public void shutdown() {
+        commandRunner.shutdownNow();
+        try {
+            commandRunner.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Appends messages, drops the oldest ones beyond the history limit and scrolls to the newest.
+     * Only the visible rows have cells, so a long session costs one small object per message.
+     */
+    private void addMessages(ChatMessage... added) {
+        messages.addAll(added);
+        int excess = messages.size() - maxHistory;
+        if (excess > 0) {
+            messages.remove(0, excess);
+        }
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * Waits on the command thread for the data file to finish loading.
+     */
+    private Mang awaitMang() throws InterruptedException {
+        try {
+            return mang.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not load your tasks: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Runs a command on the command thread. A command that changes the tasks first moves its state from
+     * {@link #CANCELLABLE} to {@link #CHANGING}; from then on it can no longer be cancelled.
+     */
+    private String respond(String input, AtomicInteger state) throws InterruptedException {
+        Mang m = awaitMang();
+        if (!m.getCommands().isQuery(input) && !state.compareAndSet(CANCELLABLE, CHANGING)) {
+            throw new CancellationException("Command cancelled."); // cancelled before it changed anything
+        }
+        return m.getResponse(input);
+    }
+
+    /**
+     * A queued command. Its reply, or its cancellation, is handed back to the JavaFX thread.
+     */
+    private final class CommandTask extends FutureTask<String> {
+        private final String input;
+        private final AtomicInteger state;
+
+        CommandTask(String input) {
+            this(input, new AtomicInteger(CANCELLABLE));
+        }
+
+        private CommandTask(String input, AtomicInteger state) {
+            super(() -> respond(input, state));
+            this.input = input;
+            this.state = state;
+        }
+
+        /**
+         * Cancels the command unless it has started changing the tasks.
+         *
+         * @return false if the command is changing the tasks or has already finished
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!state.compareAndSet(CANCELLABLE, CANCELLED) && state.get() == CHANGING) {
+                return false;
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        boolean isChanging() {
+            return state.get() == CHANGING;
+        }
+
+        @Override
+        protected void done() {
+            Platform.runLater(() -> finish(this));
         }
     }
 }
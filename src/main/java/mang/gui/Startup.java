@@ -0,0 +1,85 @@
+package mang.gui;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+/**
+ * Startup switches and the optional startup-phase timing report.
+ *
+ * <p>With {@code -Dmang.fastStart=true} the window is shown before the data file is loaded: the tasks
+ * are loaded on a background thread and the avatars decode in the background too.
+ * With {@code -Dmang.startup.timing=true} the time spent loading the FXML, decoding the images and loading
+ * the data file, and the time from launch to the first frame, are printed to standard error once all are known.
+ */
+final class Startup {
+    /** Show the window first and load the data file in the background. */
+    static final boolean IS_FAST = Boolean.getBoolean("mang.fastStart");
+
+    private static final boolean IS_TIMED = Boolean.getBoolean("mang.startup.timing");
+    private static final String[] PHASES = {"FXML", "images", "storage load", "first frame"};
+    private static final Map<String, Long> timings = new ConcurrentHashMap<>();
+
+    private static volatile long launchNanos = System.nanoTime(); // reset by the launcher
+    private static boolean isReported;
+
+    private Startup() {
+    }
+
+    /**
+     * Marks the moment the application was launched; the first frame is timed from here.
+     */
+    static void markLaunch() {
+        launchNanos = System.nanoTime();
+    }
+
+    /**
+     * Records that {@code phase} took from {@code startNanos} until now.
+     *
+     * @param phase      One of the reported phases.
+     * @param startNanos {@link System#nanoTime()} when the phase began.
+     */
+    static void record(String phase, long startNanos) {
+        if (!IS_TIMED) {
+            return;
+        }
+        timings.put(phase, System.nanoTime() - startNanos);
+        reportIfComplete();
+    }
+
+    /**
+     * Records the time from launch to the first pulse after {@code scene} has been laid out.
+     * Call on the JavaFX thread before showing the stage.
+     */
+    static void recordFirstFrame(Scene scene) {
+        if (!IS_TIMED) {
+            return;
+        }
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            if (!timings.containsKey("first frame")) {
+                record("first frame", launchNanos);
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+            }
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    private static synchronized void reportIfComplete() {
+        if (isReported || timings.size() < PHASES.length) {
+            return;
+        }
+        isReported = true;
+        StringBuilder sb = new StringBuilder("Startup timing (fast start " + (IS_FAST ? "on" : "off") + "):");
+        for (String phase : PHASES) {
+            sb.append(String.format("%n  %-13s %8.1f ms", phase, timings.get(phase) / 1e6));
+        }
+        sb.append(" after launch");
+        if (IS_FAST) {
+            sb.append(String.format("%n  (storage load and image decoding overlap the first frame)"));
+        }
+        System.err.println(sb);
+    }
+}
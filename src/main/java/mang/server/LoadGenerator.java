@@ -0,0 +1,159 @@
+package mang.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mang.ConcurrentTaskList;
+import mang.Mang;
+import mang.Storage;
+
+/**
+ * Load test for {@link MangServer}: several clients send a mix of commands as fast as they can, then
+ * the throughput and the p50/p99 latency are reported.
+ *
+ * <p>{@code LoadGenerator [clients] [requests per client] [url]}. Without a URL an in-process server over a
+ * scratch data file is started on a free port, so a run never touches your own tasks.
+ * Each client sends about 70% queries ({@code list}, {@code find}, {@code due}) and 30% changes
+ * ({@code todo}, {@code mark}, {@code unmark}).
+ */
+public class LoadGenerator {
+    private static final int DEFAULT_CLIENTS = 16;
+    private static final int DEFAULT_REQUESTS = 2000;
+    private static final int WARMUP_REQUESTS = 200;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final URI uri;
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private LoadGenerator(URI uri) {
+        this.uri = uri;
+    }
+
+    /**
+     * Sends one command and returns its latency in nanoseconds; failures are counted.
+     */
+    private long send(String command) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(command)).build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200 || response.body().startsWith("OOPS!")) {
+                errors.incrementAndGet();
+            }
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String nextCommand(int client, int i) {
+        int kind = ThreadLocalRandom.current().nextInt(10);
+        if (kind < 2) {
+            return "todo load test " + client + "-" + i;
+        } else if (kind == 2) {
+            return (i % 2 == 0 ? "mark " : "unmark ") + (1 + ThreadLocalRandom.current().nextInt(50));
+        } else if (kind < 6) {
+            return "list 1-20";
+        } else if (kind < 9) {
+            return "find test " + client;
+        } else {
+            return "due next 5";
+        }
+    }
+
+    /**
+     * Runs {@code clients} clients that each send {@code requests} commands, and returns every latency.
+     */
+    private long[] run(int clients, int requests) throws InterruptedException, ExecutionException {
+        ExecutorService pool = MangServer.newRequestExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            running.add(pool.submit(() -> {
+                start.await();
+                long[] latencies = new long[requests];
+                for (int i = 0; i < requests; i++) {
+                    latencies[i] = send(nextCommand(client, i));
+                }
+                return latencies;
+            }));
+        }
+        start.countDown();
+        long[] all = new long[clients * requests];
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(running.get(c).get(), 0, all, c * requests, requests);
+        }
+        pool.shutdown();
+        return all;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        int i = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(i, 0)] / 1e6;
+    }
+
+    /**
+     * Runs the load test and prints the results.
+     *
+     * @param args Optional client count, requests per client and server URL.
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REQUESTS;
+        MangServer embedded = null;
+        Mang mang = null;
+        Path scratch = null;
+        URI uri;
+        if (args.length > 2) {
+            uri = URI.create(args[2]);
+        } else {
+            scratch = Files.createTempFile("mang-load", ".txt");
+            Storage storage = new Storage(scratch);
+            mang = new Mang(storage, new ConcurrentTaskList(storage.load()));
+            for (int i = 0; i < 50; i++) {
+                mang.getResponse("deadline seed task " + i + " /by 2030-01-" + String.format("%02d", i % 28 + 1));
+            }
+            embedded = new MangServer(mang, 0);
+            embedded.start();
+            uri = URI.create("http://127.0.0.1:" + embedded.getPort() + "/command");
+        }
+
+        try {
+            LoadGenerator generator = new LoadGenerator(uri);
+            generator.run(clients, WARMUP_REQUESTS / clients + 1); // let the JIT and the connection pool settle
+            generator.errors.set(0);
+
+            long start = System.nanoTime();
+            long[] latencies = generator.run(clients, requests);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            System.out.printf("Sent %d requests from %d clients to %s in %.2f s%n",
+                    latencies.length, clients, uri, seconds);
+            System.out.printf("Throughput: %.0f requests/s%n", latencies.length / seconds);
+            System.out.printf("Latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", percentileMillis(latencies, 50),
+                    percentileMillis(latencies, 99), latencies[latencies.length - 1] / 1e6);
+            System.out.println("Errors: " + generator.errors.get());
+        } finally {
+            if (embedded != null) {
+                embedded.stop();
+                mang.shutdown();
+                Files.deleteIfExists(scratch);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package mang.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import mang.ConcurrentTaskList;
+import mang.Mang;
+import mang.Storage;
+import mang.StorageException;
+
+/**
+ * A headless front end that serves {@link Mang#getResponse(String)} over HTTP on the loopback interface,
+ * so several clients (scripts, other tools) can share one task list.
+ *
+ * <p>{@code POST /command} with the command line as a UTF-8 body answers with Mang's reply as plain text.
+ * Each request runs on its own virtual thread where the JVM has them (Java 21 and later), and on a pooled
+ * thread otherwise. The clients share one {@link Mang} over a {@link ConcurrentTaskList}. Its workspace is
+ * {@linkplain Mang#pinWorkspace() pinned}, so no client can switch the others to another workspace.
+ */
+public class MangServer {
+    /** Port used when none is given; override with -Dmang.server.port or the first argument. */
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_COMMAND_BYTES = 64 * 1024;
+
+    static {
+        // replies are small; without TCP_NODELAY each one waits ~40 ms for the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService requests;
+
+    /**
+     * Creates a server for {@code mang} on {@code port} of the loopback interface; port 0 picks a free port.
+     * Nothing is served until {@link #start()}. Pins the workspace {@code mang} is using.
+     *
+     * @param mang The chatbot shared by every client; it should be built over a {@link ConcurrentTaskList}.
+     * @param port The port to listen on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public MangServer(Mang mang, int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.requests = newRequestExecutor();
+        server.setExecutor(requests);
+        server.createContext("/command", exchange -> handle(mang, exchange));
+        mang.pinWorkspace();
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per request, or a cached pool of daemon threads
+     * on JVMs without virtual threads. Looked up reflectively so the code still builds for Java 17.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "mang-server-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private static void handle(Mang mang, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                send(exchange, 405, "Send the command as the body of a POST request.");
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                send(exchange, 413, "Commands are limited to " + MAX_COMMAND_BYTES + " bytes.");
+                return;
+            }
+            String input = new String(body, StandardCharsets.UTF_8).trim();
+            send(exchange, 200, mang.getResponse(input));
+        }
+    }
+
+    /**
+     * Reads the request body, or returns null if it is longer than {@link #MAX_COMMAND_BYTES}.
+     */
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_COMMAND_BYTES + 1);
+        return body.length > MAX_COMMAND_BYTES ? null : body;
+    }
+
+    private static void send(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Starts serving requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on, e.g. the one picked for port 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish for up to a second and stops their threads.
+     */
+    public void stop() {
+        server.stop(1);
+        requests.shutdown();
+        try {
+            requests.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the server until the process is stopped: {@code MangServer [port] [data file]}.
+     *
+     * @param args Optional port and data file (by default {@code data/mang.txt}).
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+                : Integer.getInteger("mang.server.port", DEFAULT_PORT);
+        Storage storage = args.length > 1 ? new Storage(Paths.get(args[1])) : new Storage();
+        Mang mang;
+        try {
+            mang = new Mang(storage, new ConcurrentTaskList(storage.load()));
+        } catch (StorageException se) {
+            System.err.println("Storage error: " + se.getMessage());
+            return;
+        }
+
+        MangServer server;
+        try {
+            server = new MangServer(mang, port);
+        } catch (IOException e) {
+            System.err.println("Cannot listen on port " + port + ": " + e.getMessage());
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            mang.shutdown(); // write out changes still queued on the persister
+        }));
+        server.start();
+        System.out.println("Mang is listening on http://" + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + server.getPort() + "/command (stop with Ctrl+C)");
+    }
+}
@@ -0,0 +1,120 @@
+package mang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentTaskListTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 5000;
+
+    @Test
+    public void add_fromManyThreads_noLostUpdates() throws Exception {
+        ConcurrentTaskList tasks = new ConcurrentTaskList();
+        runConcurrently(id -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                tasks.add(new Todo(id + "-" + i));
+                if (i % 500 == 0) {
+                    tasks.find(id + "-");
+                }
+            }
+        });
+
+        assertEquals(THREADS * PER_THREAD, tasks.size());
+        Set<String> descriptions = new HashSet<>();
+        for (Task t : tasks.snapshot()) {
+            descriptions.add(t.getDescription());
+        }
+        assertEquals(THREADS * PER_THREAD, descriptions.size());
+        assertEquals(PER_THREAD, tasks.find("3-").length);
+    }
+
+    @Test
+    public void addDeleteAndMark_whileSnapshotting_snapshotsAreConsistent() throws Exception {
+        ConcurrentTaskList tasks = new ConcurrentTaskList(new TaskList());
+        AtomicBoolean isDone = new AtomicBoolean();
+        ExecutorService readers = Executors.newSingleThreadExecutor();
+        Future<Integer> snapshots = readers.submit(() -> {
+            int taken = 0;
+            while (!isDone.get()) {
+                for (Task t : tasks.snapshot()) {
+                    assertNotNull(t);
+                }
+                taken++;
+            }
+            return taken;
+        });
+
+        runConcurrently(id -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                tasks.add(new Todo(id + "-" + i));
+                tasks.mark(1);
+                if (i % 2 == 1) {
+                    tasks.delete(1); // every thread has added more than it deleted, so task 1 exists
+                }
+            }
+        });
+        isDone.set(true);
+
+        assertEquals(THREADS * PER_THREAD / 2, tasks.size());
+        assertTrue(snapshots.get() > 0);
+        readers.shutdown();
+    }
+
+    @Test
+    public void sizeAndGet_afterEachWrite_seeTheLastPublishedList() {
+        ConcurrentTaskList tasks = new ConcurrentTaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("write essay"));
+        TaskSnapshot before = tasks.snapshot();
+
+        tasks.delete(1);
+        assertThrows(IllegalArgumentException.class, () -> tasks.delete(5));
+        assertEquals(1, tasks.size());
+        assertEquals("write essay", tasks.get(0).getDescription());
+        assertEquals(2, before.size()); // taken before the delete, so it never changes
+        tasks.mark(1);
+        assertTrue(tasks.get(0).isDone());
+        assertEquals(tasks.snapshot().get(0), tasks.get(0));
+    }
+
+    private interface Worker {
+        void run(int id);
+    }
+
+    /**
+     * Runs {@code worker} on {@link #THREADS} threads that all start at once, and rethrows any failure.
+     */
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            running.add(pool.submit(() -> {
+                start.await();
+                worker.run(id);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : running) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,129 @@
+package mang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class MangTest {
+
+    private static Mang newMang() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Storage storage = new Storage(tempFile);
+        return new Mang(storage, storage.load());
+    }
+
+    @Test
+    public void getResponse_addThenList_sharedFormatting() throws Exception {
+        Mang mang = newMang();
+
+        assertEquals("Got it. I've added this task:\n  [T][ ] read book\nNow you have 1 tasks in the list.",
+                mang.getResponse("todo read book"));
+        assertEquals("Here are the tasks in your list:\n1.[T][ ] read book", mang.getResponse("list"));
+        assertEquals(1, mang.getCommands().invocationCount("todo"));
+    }
+
+    @Test
+    public void getResponse_stats_reportsTasksSavesAndCommandTimings() throws Exception {
+        Mang mang = newMang();
+        mang.getResponse("todo read book");
+        mang.getResponse("bye"); // waits for the save
+
+        String stats = mang.getResponse("stats");
+        assertTrue(stats.startsWith("Here are my statistics:\nTasks: 1\n"), stats);
+        assertTrue(stats.contains("\nSaves: 1, "), stats);
+        assertTrue(stats.contains("\n  todo: 1, "), stats);
+        String exposition = mang.getMetrics().toPrometheusText();
+        assertTrue(exposition.contains("\nmang_command_duration_seconds_count{command=\"todo\"} 1\n"), exposition);
+        assertTrue(exposition.contains("\nmang_command_duration_seconds_bucket{command=\"todo\",le=\"+Inf\"} 1\n"));
+        assertTrue(exposition.contains("\nmang_save_duration_seconds_count 1\n"), exposition);
+        assertTrue(exposition.contains("\nmang_tasks 1\n"), exposition);
+    }
+
+    @Test
+    public void getResponse_useWorkspace_keepsEachListInItsOwnFile() throws Exception {
+        Storage storage = new Storage(Files.createTempDirectory("mang-test").resolve("mang.txt"));
+        Mang mang = new Mang(storage, storage.load());
+        mang.getResponse("todo default task");
+
+        assertEquals("Now using workspace 'work' with 0 tasks.", mang.getResponse("use Work"));
+        mang.getResponse("todo work task");
+        assertEquals("Here are the tasks in your list:\n1.[T][ ] work task", mang.getResponse("list"));
+        assertEquals("Now using workspace 'default' with 1 tasks.", mang.getResponse("switch default"));
+        assertEquals("Here are your workspaces:\n  default (in use, 1 tasks)\n  work (loaded, 1 tasks)",
+                mang.getResponse("workspaces"));
+        mang.shutdown();
+
+        assertEquals(List.of("work"), storage.listWorkspaces());
+        assertEquals(1, storage.forWorkspace("work").load().size());
+        assertEquals(1, storage.load().size());
+    }
+
+    @Test
+    public void getResponse_unknownOrInvalidCommand_reportsError() throws Exception {
+        Mang mang = newMang();
+
+        assertEquals("OOPS! Unknown command: blah", mang.getResponse("blah"));
+        assertEquals("OOPS! That does not look like a valid number.", mang.getResponse("mark two"));
+        assertEquals("OOPS! mang.Task number 3 does not exist.", mang.getResponse("delete 3"));
+    }
+
+    @Test
+    public void getResponse_rangeAndDoneSelections_applyInOnePass() throws Exception {
+        Mang mang = newMang();
+        for (int i = 1; i <= 6; i++) {
+            mang.getResponse("todo task " + i);
+        }
+
+        mang.getResponse("mark 1,3-4");
+        assertEquals("Noted. I've removed these 3 tasks:\n  [T][X] task 1\n  [T][X] task 3\n  [T][X] task 4\n"
+                + "Now you have 3 tasks in the list.", mang.getResponse("delete done"));
+        assertEquals("OOPS! mang.Task number 4 does not exist.", mang.getResponse("delete 2-9"));
+        assertEquals("Here are the tasks in your list:\n1.[T][ ] task 2\n2.[T][ ] task 5\n3.[T][ ] task 6",
+                mang.getResponse("list"));
+    }
+
+    @Test
+    public void getResponse_listRangeAndPage_showsOnlyThoseTasks() throws Exception {
+        Mang mang = newMang();
+        for (int i = 1; i <= 3; i++) {
+            mang.getResponse("todo task " + i);
+        }
+
+        assertEquals("Here are tasks 2-3 of 3 in your list:\n2.[T][ ] task 2\n3.[T][ ] task 3",
+                mang.getResponse("list 2-3"));
+        assertEquals("Here are tasks 1-1 of 3 in your list:\n1.[T][ ] task 1\n"
+                + "Type 'list page 1' or 'list 2-3' to see more.", mang.getResponse("list 1-1"));
+        assertEquals("OOPS! There are only 3 tasks in your list.", mang.getResponse("list page 2"));
+    }
+
+    @Test
+    public void runBatch_atomicWithFailure_rollsBackEverything() throws Exception {
+        Mang mang = newMang();
+        mang.getResponse("todo read book");
+
+        BatchResult result = mang.runBatch(List.of("mark 1", "todo write essay", "delete 9", "todo never run"), true);
+
+        assertTrue(result.isRolledBack());
+        assertEquals(3, result.getFailedCommandNumber());
+        assertEquals(3, result.getResponses().size());
+        assertEquals("Here are the tasks in your list:\n1.[T][ ] read book", mang.getResponse("list"));
+    }
+
+    @Test
+    public void getResponse_interruptedListing_isCancelled() throws Exception {
+        Mang mang = newMang();
+        mang.getResponse("todo read book");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals("OOPS! Command cancelled.", mang.getResponse("list"));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
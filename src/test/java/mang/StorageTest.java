@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -29,4 +30,171 @@ public class StorageTest {
         assertEquals("[T][ ] read book", loaded[0].toString());
         assertEquals("[D][ ] return book (by: Oct 15 2019)", loaded[1].toString());
     }
+
+    @Test
+    public void constructor_unknownDurabilityProperty_keepsDefault() {
+        System.setProperty("mang.durability", "fast");
+        try {
+            assertEquals(Storage.Durability.FILE, new Storage().getDurability());
+        } finally {
+            System.clearProperty("mang.durability");
+        }
+        System.setProperty("mang.durability", " None ");
+        try {
+            assertEquals(Storage.Durability.NONE, new Storage().getDurability());
+        } finally {
+            System.clearProperty("mang.durability");
+        }
+    }
+
+    @Test
+    public void load_journalRecords_replayedOnTopOfSnapshot() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Storage storage = new Storage(tempFile, true);
+
+        Task[] tasks = new Task[10];
+        tasks[0] = new Todo("read book");
+        storage.save(tasks, 1);
+
+        storage.appendAdd(new Todo("write essay"));
+        storage.appendMark(2);
+        storage.appendAdd(new Deadline("return book", LocalDate.parse("2019-10-15")));
+        storage.appendDelete(1);
+
+        Task[] loaded = new Task[10];
+        int count = new Storage(tempFile, true).load(loaded);
+
+        assertEquals(2, count);
+        assertEquals("[T][X] write essay", loaded[0].toString());
+        assertEquals("[D][ ] return book (by: Oct 15 2019)", loaded[1].toString());
+    }
+
+    @Test
+    public void appendAdd_journalMode_recordedInAppendMetrics() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Storage storage = new Storage(tempFile, true);
+        storage.load();
+
+        storage.appendAdd(new Todo("read book"));
+        storage.appendMark(1);
+
+        Path journal = tempFile.resolveSibling(tempFile.getFileName() + ".journal");
+        assertEquals(2, storage.getAppendLatency().count());
+        assertEquals(Files.size(journal), storage.getAppendedBytes());
+        assertEquals(0, storage.getSaveLatency().count());
+    }
+
+    @Test
+    public void load_moreThanOneHundredTasks_nothingDropped() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Storage storage = new Storage(tempFile);
+
+        Task[] tasks = new Task[250];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Todo("task " + i);
+        }
+        storage.save(tasks, tasks.length);
+
+        TaskList loaded = storage.load();
+
+        assertEquals(250, loaded.size());
+        assertEquals("[T][ ] task 249", loaded.get(249).toString());
+    }
+
+    @Test
+    public void load_journalAlreadyFoldedIntoSnapshot_notReplayedTwice() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Path journal = tempFile.resolveSibling(tempFile.getFileName() + ".journal");
+        Storage storage = new Storage(tempFile, true);
+        storage.save(new Task[] {new Todo("read book")}, 1);
+        storage.appendAdd(new Todo("write essay"));
+        byte[] staleJournal = Files.readAllBytes(journal);
+
+        // simulate a crash after the new snapshot was renamed into place but before the journal was removed
+        storage.save(new Task[] {new Todo("read book"), new Todo("write essay")}, 2);
+        Files.write(journal, staleJournal);
+
+        assertEquals(2, new Storage(tempFile, true).load().size());
+    }
+
+    @Test
+    public void load_tolerantFormat_parsesValidLinesAndSkipsCorruptedOnes() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Files.writeString(tempFile, "T|1|read book\r\n"
+                + "\r\n"
+                + "D  |  0  |  return book  |  2019-10-15\n"
+                + "D | 0 | bad date | 2019-02-30\n"
+                + "garbage\r"
+                + "E | 0 | project meeting | Mon 2pm | 4pm");
+        Storage storage = new Storage(tempFile);
+
+        TaskList loaded = storage.load();
+
+        assertEquals(3, loaded.size());
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+        assertEquals("[D][ ] return book (by: Oct 15 2019)", loaded.get(1).toString());
+        assertEquals("[E][ ] project meeting (from: Mon 2pm to: 4pm)", loaded.get(2).toString());
+        assertEquals(2, storage.getSkippedLineCount());
+    }
+
+    @Test
+    public void convert_textToBinaryAndBack_sameTasks() throws Exception {
+        Path dir = Files.createTempDirectory("mang-test");
+        Path text = dir.resolve("mang.txt");
+        Task[] tasks = new Task[3];
+        tasks[0] = new Todo("read book");
+        tasks[1] = new Deadline("return book", LocalDate.parse("2019-10-15"));
+        tasks[1].markDone();
+        tasks[2] = new Event("project meeting", "Mon 2pm", "4pm");
+        new Storage(text).save(tasks, 3);
+
+        Path binary = dir.resolve("mang.bin");
+        assertEquals(3, StorageConverter.convert(text, binary));
+        TaskList loaded = new Storage(binary).load();
+        assertEquals(3, loaded.size());
+        assertEquals("[D][X] return book (by: Oct 15 2019)", loaded.get(1).toString());
+        assertEquals("[E][ ] project meeting (from: Mon 2pm to: 4pm)", loaded.get(2).toString());
+
+        Path back = dir.resolve("back.txt");
+        StorageConverter.convert(binary, back);
+        assertEquals(Files.readAllLines(text), Files.readAllLines(back));
+    }
+
+    @Test
+    public void load_truncatedBinaryFile_keepsCompleteTasks() throws Exception {
+        Path file = Files.createTempFile("mang-test", ".bin");
+        Task[] tasks = new Task[2];
+        tasks[0] = new Todo("read book");
+        tasks[1] = new Todo("write essay");
+        new Storage(file).save(tasks, 2);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        Storage storage = new Storage(file);
+        TaskList loaded = storage.load();
+
+        assertEquals(1, loaded.size());
+        assertEquals("[T][ ] read book", loaded.get(0).toString());
+        assertEquals(1, storage.getSkippedLineCount());
+    }
+
+    @Test
+    public void load_lazy_sameTasksAsEagerLoad() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Files.writeString(tempFile, "T|1|read book\r\n"
+                + "D | 0 | bad date | 2019-02-30\n"
+                + "D  |  0  |  return book  |  2019-10-15\n"
+                + "garbage\r"
+                + "E | 0 | project meeting | Mon 2pm | 4pm");
+        Storage storage = new Storage(tempFile, true);
+        storage.setLazyLoading(true);
+        storage.appendDelete(1);
+
+        TaskList loaded = storage.load();
+
+        assertEquals(2, loaded.size());
+        assertEquals(2, storage.getSkippedLineCount());
+        assertEquals("[E][ ] project meeting (from: Mon 2pm to: 4pm)", loaded.get(1).toString());
+        assertEquals("[D][ ] return book (by: Oct 15 2019)", loaded.get(0).toString());
+    }
 }
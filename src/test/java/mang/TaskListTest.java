@@ -0,0 +1,206 @@
+package mang;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskListTest {
+
+    @Test
+    public void add_beyondInitialCapacity_growsWithoutLosingTasks() {
+        TaskList tasks = new TaskList(1);
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+
+        assertEquals(1000, tasks.size());
+        assertEquals("[T][ ] task 0", tasks.get(0).toString());
+        assertEquals("[T][ ] task 999", tasks.get(999).toString());
+    }
+
+    @Test
+    public void delete_lazyListGrownBeforeCompaction_keepsEveryTask() throws Exception {
+        List<String> expected = new ArrayList<>();
+        TaskList tasks = lazyList(10, expected);
+        for (int i = 0; i < 6; i++) {
+            tasks.delete(1);
+            expected.remove(0);
+        }
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("added " + i));
+            expected.add("[T][ ] added " + i);
+        }
+        for (int i = 0; i < 8; i++) { // compacts the lazy list with slots added after it was loaded
+            tasks.delete(5);
+            expected.remove(4);
+        }
+
+        assertEquals(expected, descriptions(tasks));
+    }
+
+    @Test
+    public void deleteAll_lazyListGrown_removesOnlySelected() throws Exception {
+        List<String> expected = new ArrayList<>();
+        TaskList tasks = lazyList(10, expected);
+        tasks.deleteAll(new int[] {1, 2});
+        expected.subList(0, 2).clear();
+        for (int i = 0; i < 1100; i++) { // past the first slot chunk, so the slot arrays grow
+            tasks.add(new Todo("added " + i));
+            expected.add("[T][ ] added " + i);
+        }
+        tasks.delete(1);
+        expected.remove(0);
+        tasks.deleteAll(new int[] {2, 1000});
+        expected.remove(999);
+        expected.remove(1);
+
+        assertEquals(expected, descriptions(tasks));
+    }
+
+    private static TaskList lazyList(int count, List<String> expected) throws Exception {
+        Path file = Files.createTempFile("mang-test", ".txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("T | 0 | loaded " + i);
+            expected.add("[T][ ] loaded " + i);
+        }
+        Files.write(file, lines);
+        return new TaskList(MappedTaskFile.open(file));
+    }
+
+    private static List<String> descriptions(TaskList tasks) {
+        List<String> shown = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            shown.add(tasks.get(i).toString());
+        }
+        return shown;
+    }
+
+    @Test
+    public void find_afterAddDeleteAndSort_matchesLinearScan() {
+        TaskList tasks = new TaskList();
+        String[] words = {"Read", "book", "return", "BOOKS", "meeting", "bo", "project", "x"};
+        for (int i = 0; i < 200; i++) {
+            tasks.add(new Todo(words[i % words.length] + " " + words[(i * 7) % words.length] + " " + i));
+        }
+        tasks.delete(1);
+        tasks.delete(50);
+        tasks.sortByDescription();
+        tasks.add(new Todo("one more book"));
+
+        for (String keyword : new String[] {"book", "BO", "o", "ret", "meeting project", "zzz", "1"}) {
+            assertArrayEquals(linearFind(tasks, keyword), tasks.find(keyword), keyword);
+        }
+    }
+
+    @Test
+    public void delete_interleavedWithAddAndMark_keepsUserVisibleNumbers() {
+        TaskList tasks = new TaskList();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+            expected.add("[T][ ] task " + i);
+        }
+        for (int i = 0; i < 60; i++) {
+            int number = 1 + (i * 37) % tasks.size();
+            assertEquals(expected.remove(number - 1), tasks.delete(number).toString());
+            if (i % 3 == 0) {
+                tasks.add(new Todo("extra " + i));
+                expected.add("[T][ ] extra " + i);
+            }
+        }
+        tasks.mark(2);
+        expected.set(1, expected.get(1).replace("[ ]", "[X]"));
+
+        assertEquals(expected.size(), tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(expected.get(i), tasks.get(i).toString());
+        }
+    }
+
+    @Test
+    public void nextDue_afterMarkUnmarkAndDelete_pendingDeadlinesInDateOrder() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("later", LocalDate.parse("2030-01-05")));
+        tasks.add(new Deadline("earliest", LocalDate.parse("2001-01-01")));
+        tasks.add(new Todo("no date"));
+        tasks.add(new Deadline("middle", LocalDate.parse("2029-12-31")));
+        assertEquals(3, tasks.nextDue(10).size());
+
+        tasks.mark(2);
+        tasks.delete(1);
+        tasks.add(new Deadline("new", LocalDate.parse("2020-06-01")));
+
+        assertEquals(List.of("new", "middle"), descriptions(tasks.nextDue(10)));
+        tasks.unmark(1);
+        assertEquals(List.of("earliest", "new"), descriptions(tasks.dueBefore(LocalDate.parse("2029-12-31"))));
+        assertEquals("[D][ ] middle (by: Dec 31 2029)", tasks.get(2).toString()); // list order unchanged
+    }
+
+    @Test
+    public void dueBetween_deadlinesAndEvents_mergedByDateSkippingFreeTextAndDone() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("report", LocalDate.parse("2024-03-05")));
+        tasks.add(new Event("trip", "2024-02-28", "2024-03-02"));
+        tasks.add(new Event("meeting", "mon 2pm", "4pm"));
+        tasks.add(new Event("fair", "2024-03-10 0900", "2024-03-12 1700"));
+        tasks.add(new Deadline("too late", LocalDate.parse("2024-04-01")));
+        assertEquals(List.of("trip", "report"), descriptions(tasks.dueBetween(
+                LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-09"))));
+
+        tasks.mark(2);
+        assertEquals(List.of("report", "fair"), descriptions(tasks.dueBetween(
+                LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-10"))));
+        assertEquals(List.of("fair"), descriptions(tasks.happeningOn(LocalDate.parse("2024-03-12"))));
+        assertEquals(List.of(), descriptions(tasks.happeningOn(LocalDate.parse("2024-03-13"))));
+    }
+
+    @Test
+    public void snapshot_laterMarkDeleteAndSort_seesListAsItWas() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 3000; i++) { // more than one chunk of slots
+            tasks.add(new Todo("task " + i));
+        }
+        tasks.delete(5);
+        TaskSnapshot before = tasks.snapshot();
+
+        tasks.mark(1);
+        tasks.markAll(new int[] {2000, 2001});
+        tasks.delete(2);
+        tasks.sortByDescription();
+        tasks.add(new Todo("added later"));
+
+        assertEquals(2999, before.size());
+        assertEquals("[T][ ] task 0", before.get(0).toString());
+        assertEquals("[T][ ] task 5", before.get(4).toString());
+        assertEquals("[T][ ] task 2000", before.get(1999).toString());
+        assertEquals(2999, before.toArray().length);
+        assertEquals("[T][X] task 0", tasks.find("task 0")[0].toString());
+        assertEquals(2999, tasks.size());
+    }
+
+    private static List<String> descriptions(List<? extends Task> found) {
+        List<String> result = new ArrayList<>();
+        for (Task d : found) {
+            result.add(d.getDescription());
+        }
+        return result;
+    }
+
+    private static Task[] linearFind(TaskList tasks, String keyword) {
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getDescription().toLowerCase().contains(keyword.toLowerCase())) {
+                matches.add(tasks.get(i));
+            }
+        }
+        return matches.toArray(new Task[0]);
+    }
+}
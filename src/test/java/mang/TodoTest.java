@@ -20,4 +20,14 @@ public class TodoTest {
         // After marking done, should show "[X]"
         assertEquals("[T][X] read book", todo.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void markUndone_afterCachedRendering_correctlyUpdatesStatus() {
+        Todo todo = new Todo("read book");
+        todo.markDone();
+        assertEquals("[T][X] read book", todo.toString());
+        todo.markUndone();
+        // The cached "[X]" rendering must not survive the status change
+        assertEquals("[T][ ] read book", todo.toString());
+    }
+}
@@ -0,0 +1,56 @@
+package mang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkspacesTest {
+
+    @Test
+    public void evictIdle_overLimit_writesOutAndDropsLeastRecentlyUsed() throws Exception {
+        Storage storage = new Storage(Files.createTempDirectory("mang-test").resolve("mang.txt"));
+        Workspaces workspaces = new Workspaces(storage, storage.load(), 2);
+
+        Workspaces.Workspace home = workspaces.open("home");
+        home.tasks.add(new Todo("water plants"));
+        home.persister.scheduleSave(home.tasks.snapshot());
+        workspaces.open("work");
+        workspaces.open("default");
+        workspaces.evictIdle();
+
+        assertFalse(workspaces.isLoaded("home"));
+        assertTrue(workspaces.isLoaded("work"));
+        assertEquals(-1, workspaces.loadedSize("home"));
+        assertEquals(1, workspaces.open("home").tasks.size()); // reloaded from its own file
+        workspaces.shutdown();
+    }
+
+    @Test
+    public void evictIdle_failedWrite_keepsWorkspaceUsable() throws Exception {
+        Storage storage = new Storage(Files.createTempDirectory("mang-test").resolve("mang.txt"));
+        Workspaces workspaces = new Workspaces(storage, storage.load(), 1);
+        Workspaces.Workspace home = workspaces.open("home");
+        Path homeFile = storage.getWorkspaceDirectory().resolve("home.txt");
+        Files.delete(homeFile);
+        Files.createDirectory(homeFile); // the next save of home fails
+
+        home.tasks.add(new Todo("water plants"));
+        home.persister.scheduleSave(home.tasks.snapshot());
+        workspaces.open("default");
+        assertThrows(StorageException.class, workspaces::evictIdle);
+        assertTrue(workspaces.isLoaded("home"));
+
+        Files.delete(homeFile);
+        home.persister.scheduleSave(home.tasks.snapshot()); // still accepted: the persister was not stopped
+        workspaces.evictIdle();
+        assertFalse(workspaces.isLoaded("home"));
+        assertEquals(1, storage.forWorkspace("home").load().size());
+        workspaces.shutdown();
+    }
+}
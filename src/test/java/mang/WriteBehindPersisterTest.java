@@ -0,0 +1,40 @@
+package mang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+public class WriteBehindPersisterTest {
+
+    @Test
+    public void flush_afterBurstOfSaves_latestSnapshotOnDisk() throws Exception {
+        Path tempFile = Files.createTempFile("mang-test", ".txt");
+        Storage storage = new Storage(tempFile);
+        WriteBehindPersister persister = new WriteBehindPersister(storage);
+
+        for (int i = 1; i <= 50; i++) {
+            Task[] snapshot = new Task[i];
+            for (int j = 0; j < i; j++) {
+                snapshot[j] = new Todo("task " + j);
+            }
+            persister.scheduleSave(snapshot);
+        }
+        persister.shutdown();
+
+        assertEquals(50, storage.load().size());
+    }
+
+    @Test
+    public void flush_failedWrite_throwsStorageException() throws Exception {
+        Path dir = Files.createTempDirectory("mang-test");
+        WriteBehindPersister persister = new WriteBehindPersister(new Storage(dir));
+
+        persister.scheduleSave(new Task[] {new Todo("read book")});
+
+        assertThrows(StorageException.class, persister::flush);
+    }
+}
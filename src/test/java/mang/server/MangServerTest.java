@@ -0,0 +1,58 @@
+package mang.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import mang.ConcurrentTaskList;
+import mang.Mang;
+import mang.Storage;
+
+public class MangServerTest {
+
+    @Test
+    public void postCommand_fromConcurrentClients_sharesOneTaskList() throws Exception {
+        Path tempFile = Files.createTempFile("mang-server-test", ".txt");
+        Storage storage = new Storage(tempFile);
+        Mang mang = new Mang(storage, new ConcurrentTaskList(storage.load()));
+        MangServer server = new MangServer(mang, 0);
+        server.start();
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            URI uri = URI.create("http://127.0.0.1:" + server.getPort() + "/command");
+            List<CompletableFuture<HttpResponse<String>>> sent = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                sent.add(http.sendAsync(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(
+                        "todo task " + i)).build(), HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : sent) {
+                assertEquals(200, response.get().statusCode());
+            }
+
+            HttpResponse<String> count = http.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.ofString("find task")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(51, count.body().split("\n").length); // header plus 50 tasks
+            HttpResponse<String> get = http.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, get.statusCode());
+            HttpResponse<String> use = http.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.ofString("use work")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals("OOPS! This chatbot is shared, so it stays in workspace 'default'.", use.body());
+        } finally {
+            server.stop();
+            mang.shutdown();
+        }
+    }
+}